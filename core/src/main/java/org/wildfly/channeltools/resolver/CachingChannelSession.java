@@ -0,0 +1,307 @@
+package org.wildfly.channeltools.resolver;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.wildfly.channel.ArtifactCoordinate;
+import org.wildfly.channel.Channel;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.ChannelSession;
+import org.wildfly.channel.NoStreamFoundException;
+import org.wildfly.channel.Repository;
+import org.wildfly.channel.RuntimeChannel;
+import org.wildfly.channel.Stream;
+import org.wildfly.channel.VersionResult;
+import org.wildfly.channel.spi.MavenVersionsResolver;
+
+/**
+ * A {@link ChannelSession} that memoizes results of the {@link #findLatestMavenArtifactVersion} lookups, including
+ * the {@link NoStreamFoundException} outcomes for artifacts that are not covered by the channels.
+ * <p>
+ * The cache is bounded, the least recently used entries are evicted first. Instances are safe to be used from multiple
+ * threads.
+ * <p>
+ * Optionally, the results can be backed by a {@link PersistentVersionCache}, so that they are reused by subsequent runs
+ * with the same channels. The persistent cache is written when the session is closed.
+ */
+public class CachingChannelSession extends ChannelSession {
+
+    private static final String WILDCARD = "*";
+
+    private final Map<ArtifactKey, Outcome> cache;
+    private final PersistentVersionCache persistentCache;
+    private final Set<String> streamFilter;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong persistentHits = new AtomicLong();
+    private final AtomicLong filtered = new AtomicLong();
+
+    /**
+     * @param channels channels to resolve the artifact versions from
+     * @param factory factory creating the maven resolvers
+     * @param maxEntries maximum number of cached lookup results
+     */
+    public CachingChannelSession(List<Channel> channels, MavenVersionsResolver.Factory factory, int maxEntries) {
+        this(channels, factory, maxEntries, null, null, null);
+    }
+
+    /**
+     * @param channels channels to resolve the artifact versions from
+     * @param factory factory creating the maven resolvers
+     * @param maxEntries maximum number of cached lookup results
+     * @param persistentCacheDirectory directory to persist the lookup results in, or null to not persist the results
+     * @param persistentCacheTtl time after which persisted results of lookups that depend on the content of the remote
+     *                           repositories expire
+     * @param resolutionMode mode in which the factory resolvers consult remote repositories, results persisted in
+     *                       different modes are kept apart
+     */
+    public CachingChannelSession(List<Channel> channels, MavenVersionsResolver.Factory factory, int maxEntries,
+            Path persistentCacheDirectory, Duration persistentCacheTtl, ResolutionMode resolutionMode) {
+        super(channels, factory);
+        if (persistentCacheDirectory != null) {
+            this.persistentCache = new PersistentVersionCache(persistentCacheDirectory,
+                    PersistentVersionCache.digest(getRuntimeChannels(), resolutionMode), persistentCacheTtl);
+        } else {
+            this.persistentCache = null;
+        }
+        this.streamFilter = createStreamFilter();
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ArtifactKey, Outcome> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    @Override
+    public VersionResult findLatestMavenArtifactVersion(String groupId, String artifactId, String extension,
+            String classifier, String baseVersion) throws NoStreamFoundException {
+        ArtifactKey key = new ArtifactKey(groupId, artifactId, extension, classifier, baseVersion);
+        return lookup(key).get(key);
+    }
+
+    /**
+     * Same as {@link #findLatestMavenArtifactVersion}, but returns an empty result instead of throwing
+     * {@link NoStreamFoundException} when the artifact is not covered by the channels.
+     * <p>
+     * Artifacts that don't match any stream in the channel manifests are rejected without consulting the channels,
+     * when the channels are not configured to resolve artifacts without streams.
+     */
+    public Optional<VersionResult> findLatestMavenArtifactVersionIfPresent(String groupId, String artifactId,
+            String extension, String classifier, String baseVersion) {
+        if (streamFilter != null && !streamFilter.contains(groupId + ":" + artifactId)
+                && !streamFilter.contains(groupId + ":" + WILDCARD)) {
+            filtered.incrementAndGet();
+            return Optional.empty();
+        }
+        return Optional.ofNullable(lookup(new ArtifactKey(groupId, artifactId, extension, classifier, baseVersion)).result);
+    }
+
+    private Outcome lookup(ArtifactKey key) {
+        Outcome outcome = cache.get(key);
+        if (outcome != null) {
+            hits.incrementAndGet();
+        } else {
+            // The lookup is performed outside of the cache lock, concurrent misses of the same key may resolve it
+            // twice, which is harmless.
+            misses.incrementAndGet();
+            outcome = resolve(key);
+            cache.put(key, outcome);
+        }
+        return outcome;
+    }
+
+    /**
+     * Collects "groupId:artifactId" keys of all streams in the channel manifests (including the "groupId:*" wildcard
+     * streams).
+     *
+     * @return set of stream keys, or null if the channels can resolve artifacts that are not matched by any stream
+     */
+    private Set<String> createStreamFilter() {
+        for (RuntimeChannel channel: getRuntimeChannels()) {
+            Channel.NoStreamStrategy strategy = channel.getChannelDefinition().getNoStreamStrategy();
+            if (strategy != null && strategy != Channel.NoStreamStrategy.NONE) {
+                return null;
+            }
+        }
+        Set<String> keys = new HashSet<>();
+        for (ChannelManifest manifest: getManifests()) {
+            if (manifest.getManifestRequirements() != null && !manifest.getManifestRequirements().isEmpty()) {
+                // streams of required manifests are not listed here
+                return null;
+            }
+            for (Stream stream: manifest.getStreams()) {
+                keys.add(stream.getGroupId() + ":" + stream.getArtifactId());
+            }
+        }
+        return keys;
+    }
+
+    private Outcome resolve(ArtifactKey key) {
+        if (persistentCache != null) {
+            PersistentVersionCache.Entry entry = persistentCache.get(key.toString());
+            if (entry != null) {
+                persistentHits.incrementAndGet();
+                return new Outcome(entry.toVersionResult(), null);
+            }
+        }
+
+        Outcome outcome;
+        try {
+            outcome = new Outcome(super.findLatestMavenArtifactVersion(key.groupId, key.artifactId, key.extension,
+                    key.classifier, key.baseVersion), null);
+        } catch (NoStreamFoundException e) {
+            outcome = new Outcome(null, e);
+        }
+        if (persistentCache != null) {
+            persistentCache.put(key.toString(), outcome.result, !isResolvedFromFixedVersions(key));
+        }
+        return outcome;
+    }
+
+    /**
+     * Checks if given artifact is only covered by streams with fixed versions, so the lookup result only depends on the
+     * content of the manifests.
+     */
+    private boolean isResolvedFromFixedVersions(ArtifactKey key) {
+        boolean found = false;
+        for (ChannelManifest manifest: getManifests()) {
+            Optional<Stream> stream = manifest.findStreamFor(key.groupId, key.artifactId);
+            if (stream.isPresent()) {
+                if (stream.get().getVersionPattern() != null) {
+                    return false;
+                }
+                found = true;
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void close() {
+        if (persistentCache != null) {
+            persistentCache.save();
+        }
+        super.close();
+    }
+
+    /**
+     * @return number of lookups answered from the cache
+     */
+    public long getCacheHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of lookups rejected without consulting the channels, because no stream matched the artifact
+     */
+    public long getFilteredLookups() {
+        return filtered.get();
+    }
+
+    /**
+     * @return number of cache misses that were answered from the persistent cache
+     */
+    public long getPersistentCacheHits() {
+        return persistentHits.get();
+    }
+
+    /**
+     * @return number of lookups that were not answered from the in-memory cache
+     */
+    public long getCacheMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Cache key - artifact coordinates plus the base version the lookup was performed with.
+     */
+    static final class ArtifactKey {
+        private final String groupId;
+        private final String artifactId;
+        private final String extension;
+        private final String classifier;
+        private final String baseVersion;
+
+        ArtifactKey(String groupId, String artifactId, String extension, String classifier, String baseVersion) {
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.extension = extension;
+            this.classifier = classifier;
+            this.baseVersion = baseVersion;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ArtifactKey that = (ArtifactKey) o;
+            return Objects.equals(groupId, that.groupId) && Objects.equals(artifactId, that.artifactId)
+                    && Objects.equals(extension, that.extension) && Objects.equals(classifier, that.classifier)
+                    && Objects.equals(baseVersion, that.baseVersion);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(groupId, artifactId, extension, classifier, baseVersion);
+        }
+
+        @Override
+        public String toString() {
+            return String.join(":", Objects.toString(groupId, ""), Objects.toString(artifactId, ""),
+                    Objects.toString(extension, ""), Objects.toString(classifier, ""), Objects.toString(baseVersion, ""));
+        }
+    }
+
+    /**
+     * Result of a single lookup - either a resolved version or the details of the exception signaling that no stream
+     * was found. A new exception is created for every failed lookup, exception instances are never shared between
+     * callers.
+     */
+    private static final class Outcome {
+        private final VersionResult result;
+        private final String message;
+        private final Set<ArtifactCoordinate> unresolvedArtifacts;
+        private final Set<Repository> attemptedRepositories;
+
+        /**
+         * @param result resolved version, null if no stream was found
+         * @param exception exception thrown by the channel session, can be null if the result was not obtained from
+         *                  the channel session
+         */
+        Outcome(VersionResult result, NoStreamFoundException exception) {
+            this.result = result;
+            if (exception != null) {
+                this.message = exception.getMessage();
+                this.unresolvedArtifacts = exception.getUnresolvedArtifacts();
+                this.attemptedRepositories = exception.getAttemptedRepositories();
+            } else {
+                this.message = null;
+                this.unresolvedArtifacts = null;
+                this.attemptedRepositories = null;
+            }
+        }
+
+        VersionResult get(ArtifactKey key) throws NoStreamFoundException {
+            if (message != null) {
+                throw new NoStreamFoundException(message, unresolvedArtifacts, attemptedRepositories);
+            }
+            if (result == null) {
+                ArtifactCoordinate coordinate = new ArtifactCoordinate(key.groupId, key.artifactId, key.extension,
+                        key.classifier, Objects.requireNonNullElse(key.baseVersion, ""));
+                throw new NoStreamFoundException("No stream found for " + coordinate, Set.of(coordinate),
+                        Collections.emptySet());
+            }
+            return result;
+        }
+    }
+}
@@ -18,22 +18,34 @@
 package org.wildfly.channeltools.resolver;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.GeneralSecurityException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.net.ssl.SSLContext;
 
 import org.apache.commons.lang3.NotImplementedException;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.ssl.SSLContexts;
 import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
+import org.eclipse.aether.DefaultRepositoryCache;
 import org.eclipse.aether.DefaultRepositorySystemSession;
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.artifact.Artifact;
@@ -45,13 +57,16 @@ import org.eclipse.aether.repository.AuthenticationContext;
 import org.eclipse.aether.repository.AuthenticationDigest;
 import org.eclipse.aether.repository.LocalRepository;
 import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
 import org.eclipse.aether.resolution.VersionRangeRequest;
 import org.eclipse.aether.resolution.VersionRangeResolutionException;
 import org.eclipse.aether.resolution.VersionRangeResult;
 import org.eclipse.aether.spi.connector.RepositoryConnectorFactory;
 import org.eclipse.aether.spi.connector.transport.TransporterFactory;
 import org.eclipse.aether.transfer.MetadataNotFoundException;
+import org.eclipse.aether.transfer.RepositoryOfflineException;
 import org.eclipse.aether.transport.file.FileTransporterFactory;
+import org.eclipse.aether.transport.http.HttpTransporterFactory;
 import org.eclipse.aether.transport.wagon.WagonTransporterFactory;
 import org.eclipse.aether.util.repository.AuthenticationBuilder;
 import org.eclipse.aether.version.Version;
@@ -71,15 +86,26 @@ public class DefaultMavenVersionsResolver implements MavenVersionsResolver {
 
     private static final File NULL_FILE = new File("/dev/null");
     private static final String LOCAL_MAVEN_REPO = System.getProperty("user.home") + "/.m2/repository";
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
 
     private final RepositorySystem system;
     private final DefaultRepositorySystemSession session;
     private final List<RemoteRepository> remoteRepositories;
     private final String localRepositoryPath;
     private final boolean disableTlsVerification;
+    private final int parallelism;
+    private final ResolutionMode resolutionMode;
 
     DefaultMavenVersionsResolver(Collection<Repository> remoteRepositories, String localRepositoryPath, boolean disableTlsVerification) {
+        this(remoteRepositories, localRepositoryPath, disableTlsVerification, 1, ResolverTransport.WAGON,
+                ResolutionMode.ONLINE);
+    }
+
+    DefaultMavenVersionsResolver(Collection<Repository> remoteRepositories, String localRepositoryPath,
+            boolean disableTlsVerification, int parallelism, ResolverTransport transport, ResolutionMode resolutionMode) {
         this.disableTlsVerification = disableTlsVerification;
+        this.resolutionMode = resolutionMode;
+        this.parallelism = Math.max(1, parallelism);
         this.localRepositoryPath = Objects.requireNonNullElse(localRepositoryPath, LOCAL_MAVEN_REPO);
         this.remoteRepositories = new ArrayList<>(remoteRepositories.size());
         for (Repository repository: remoteRepositories) {
@@ -113,7 +139,7 @@ public class DefaultMavenVersionsResolver implements MavenVersionsResolver {
             this.remoteRepositories.add(remoteRepositoryBuilder.build());
         }
 
-        system = newRepositorySystem();
+        system = newRepositorySystem(transport);
         session = newRepositorySystemSession();
     }
 
@@ -135,6 +161,9 @@ public class DefaultMavenVersionsResolver implements MavenVersionsResolver {
                     .stream()
                     .map(Version::toString)
                     .collect(Collectors.toSet());
+            if (resolutionMode == ResolutionMode.OFFLINE) {
+                versions.addAll(findLocalVersions(groupId, artifactId, extension, classifier));
+            }
             reportExceptions(versionRangeResult);
             logger.debugf("All versions in the repositories: %s", versions);
             return versions;
@@ -143,6 +172,56 @@ public class DefaultMavenVersionsResolver implements MavenVersionsResolver {
         }
     }
 
+    /**
+     * Resolves all available versions of given artifacts. Up to the configured number of artifacts are resolved
+     * concurrently.
+     *
+     * @param coordinates artifacts to resolve, the version of the coordinates is ignored
+     * @return map of artifact coordinates to available versions, artifacts with no available versions are mapped to
+     *  an empty set
+     */
+    public Map<ArtifactCoordinate, Set<String>> getAllVersions(Collection<ArtifactCoordinate> coordinates) {
+        Map<ArtifactCoordinate, Set<String>> result = new HashMap<>();
+        if (coordinates.isEmpty()) {
+            return result;
+        }
+        if (parallelism == 1 || coordinates.size() == 1) {
+            for (ArtifactCoordinate c: coordinates) {
+                result.put(c, getAllVersions(c.getGroupId(), c.getArtifactId(), c.getExtension(), c.getClassifier()));
+            }
+            return result;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, coordinates.size()), runnable -> {
+            Thread thread = new Thread(runnable, "version-resolver-" + THREAD_COUNTER.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Map<ArtifactCoordinate, Future<Set<String>>> futures = new HashMap<>();
+            for (ArtifactCoordinate c: coordinates) {
+                if (!futures.containsKey(c)) {
+                    futures.put(c, executor.submit(() -> getAllVersions(c.getGroupId(), c.getArtifactId(),
+                            c.getExtension(), c.getClassifier())));
+                }
+            }
+            for (Map.Entry<ArtifactCoordinate, Future<Set<String>>> entry: futures.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().get());
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while resolving artifact versions", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Failed to resolve artifact versions", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Override
     public File resolveArtifact(String groupId, String artifactId, String extension, String classifier,
             String version) {
@@ -171,13 +250,36 @@ public class DefaultMavenVersionsResolver implements MavenVersionsResolver {
         return null;
     }
 
+    /**
+     * Collects versions of given artifact present in the local repository, i.e. version directories that contain the
+     * artifact file.
+     */
+    private Set<String> findLocalVersions(String groupId, String artifactId, String extension, String classifier) {
+        Path artifactDir = Path.of(localRepositoryPath, groupId.split("\\.")).resolve(artifactId);
+        if (!Files.isDirectory(artifactDir)) {
+            return emptySet();
+        }
+        String suffix = (StringUtils.isBlank(classifier) ? "" : "-" + classifier) + "." + extension;
+        try (Stream<Path> dirs = Files.list(artifactDir)) {
+            return dirs.filter(Files::isDirectory)
+                    .map(dir -> dir.getFileName().toString())
+                    .filter(version -> Files.isRegularFile(artifactDir.resolve(version)
+                            .resolve(artifactId + "-" + version + suffix)))
+                    .collect(Collectors.toSet());
+        } catch (IOException e) {
+            logger.warnf("Couldn't list local versions of %s:%s: %s", groupId, artifactId, e.getMessage());
+            return emptySet();
+        }
+    }
+
     private static void reportExceptions(VersionRangeResult versionRangeResult) {
         // report all exceptions that are not MetadataNotFoundException, metadata are always missing in local
-        // repositories
+        // repositories, or that are caused by the session being offline
         if (versionRangeResult.getExceptions() != null) {
             List<Exception> exceptions = versionRangeResult.getExceptions()
                     .stream()
                     .filter(e -> !(e instanceof MetadataNotFoundException))
+                    .filter(e -> !(e.getCause() instanceof RepositoryOfflineException))
                     .collect(Collectors.toList());
             if (exceptions.size() > 0) {
                 Artifact artifact = versionRangeResult.getRequest().getArtifact();
@@ -195,14 +297,29 @@ public class DefaultMavenVersionsResolver implements MavenVersionsResolver {
 
         LocalRepository localRepo = new LocalRepository(this.localRepositoryPath);
         session.setLocalRepositoryManager(this.system.newLocalRepositoryManager(session, localRepo));
-        session.setOffline(false);
+        session.setOffline(resolutionMode == ResolutionMode.OFFLINE);
+        if (resolutionMode == ResolutionMode.LOCAL_FIRST) {
+            // cached metadata are never updated, remote repositories are only queried when the metadata are missing
+            session.setUpdatePolicy(RepositoryPolicy.UPDATE_POLICY_NEVER);
+        }
+        // the HTTP transport keeps its connection pool in the session cache, so that connections are reused between
+        // requests
+        session.setCache(new DefaultRepositoryCache());
         return session;
     }
 
     public static RepositorySystem newRepositorySystem() {
+        return newRepositorySystem(ResolverTransport.WAGON);
+    }
+
+    public static RepositorySystem newRepositorySystem(ResolverTransport transport) {
         final DefaultServiceLocator locator = MavenRepositorySystemUtils.newServiceLocator();
         locator.addService(RepositoryConnectorFactory.class, BasicRepositoryConnectorFactory.class);
-        locator.addService(TransporterFactory.class, WagonTransporterFactory.class);
+        if (transport == ResolverTransport.HTTP) {
+            locator.addService(TransporterFactory.class, HttpTransporterFactory.class);
+        } else {
+            locator.addService(TransporterFactory.class, WagonTransporterFactory.class);
+        }
         locator.addService(TransporterFactory.class, FileTransporterFactory.class);
         locator.setErrorHandler(new DefaultServiceLocator.ErrorHandler() {
             @Override
@@ -25,6 +25,9 @@ import org.wildfly.channel.spi.MavenVersionsResolver;
 public class DefaultMavenVersionsResolverFactory implements MavenVersionsResolver.Factory {
     private final String localRepositoryPath;
     private final boolean disableTlsVerification;
+    private int parallelism = 1;
+    private ResolverTransport transport = ResolverTransport.WAGON;
+    private ResolutionMode resolutionMode = ResolutionMode.ONLINE;
 
     public DefaultMavenVersionsResolverFactory(String localRepositoryPath,
             boolean disableTlsVerification) {
@@ -32,8 +35,49 @@ public class DefaultMavenVersionsResolverFactory implements MavenVersionsResolve
         this.disableTlsVerification = disableTlsVerification;
     }
 
+    /**
+     * Sets the maximum number of artifacts resolved concurrently by
+     * {@link DefaultMavenVersionsResolver#getAllVersions(Collection)}, 1 by default.
+     */
+    public DefaultMavenVersionsResolverFactory setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be greater than 0: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the transport used to access remote repositories, {@link ResolverTransport#WAGON} by default.
+     */
+    public DefaultMavenVersionsResolverFactory setTransport(ResolverTransport transport) {
+        this.transport = transport;
+        return this;
+    }
+
+    public ResolverTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Sets whether remote repositories are consulted, {@link ResolutionMode#ONLINE} by default.
+     */
+    public DefaultMavenVersionsResolverFactory setResolutionMode(ResolutionMode resolutionMode) {
+        this.resolutionMode = resolutionMode;
+        return this;
+    }
+
+    public ResolutionMode getResolutionMode() {
+        return resolutionMode;
+    }
+
     @Override
-    public MavenVersionsResolver create(Collection<Repository> repositories) {
-        return new DefaultMavenVersionsResolver(repositories, localRepositoryPath, disableTlsVerification);
+    public DefaultMavenVersionsResolver create(Collection<Repository> repositories) {
+        return new DefaultMavenVersionsResolver(repositories, localRepositoryPath, disableTlsVerification, parallelism,
+                transport, resolutionMode);
     }
 }
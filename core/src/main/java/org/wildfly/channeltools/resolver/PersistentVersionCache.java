@@ -0,0 +1,254 @@
+package org.wildfly.channeltools.resolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.jboss.logging.Logger;
+import org.wildfly.channel.Blocklist;
+import org.wildfly.channel.ChannelManifestMapper;
+import org.wildfly.channel.ChannelMapper;
+import org.wildfly.channel.RuntimeChannel;
+import org.wildfly.channel.VersionResult;
+
+/**
+ * On-disk store of channel version lookup results, shared between runs.
+ * <p>
+ * The results are stored in a file named after a digest of the channel definitions (channel definition including the
+ * repositories, manifest content and blocklist content) and of the resolution mode, so any change to the channels
+ * invalidates all previously stored results, and results of offline or local-first runs are never used by online runs.
+ * <p>
+ * Results of lookups that were resolved from a fixed version stream only depend on the manifest content and never
+ * expire. Other results (version pattern streams, missing streams) depend on the content of the remote repositories and
+ * expire after the given TTL.
+ */
+public class PersistentVersionCache {
+
+    private static final Logger logger = Logger.getLogger(PersistentVersionCache.class);
+
+    private static final String FILE_SUFFIX = ".properties";
+    private static final String SEPARATOR = ";";
+    private static final long NEVER_EXPIRES = Long.MAX_VALUE;
+    // Blocklist doesn't expose its entries, they are read from the fields
+    private static final ObjectMapper BLOCKLIST_MAPPER = new ObjectMapper()
+            .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+
+    private final Path cacheFile;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean modified;
+
+    /**
+     * @param cacheDirectory directory where the cache files are stored
+     * @param channelsDigest digest of the channel definitions, see {@link #digest(List, ResolutionMode)}
+     * @param ttl time after which results of lookups that depend on the content of the remote repositories expire
+     */
+    public PersistentVersionCache(Path cacheDirectory, String channelsDigest, Duration ttl) {
+        this(cacheDirectory, channelsDigest, ttl, Clock.systemUTC());
+    }
+
+    PersistentVersionCache(Path cacheDirectory, String channelsDigest, Duration ttl, Clock clock) {
+        this.cacheFile = cacheDirectory.resolve(channelsDigest + FILE_SUFFIX);
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        load();
+    }
+
+    /**
+     * Computes a digest identifying given channels, including the content of the resolved manifests and blocklists,
+     * and the mode in which the artifact versions are resolved.
+     */
+    public static String digest(List<RuntimeChannel> channels, ResolutionMode resolutionMode) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(resolutionMode.name().getBytes(StandardCharsets.UTF_8));
+            for (RuntimeChannel channel: channels) {
+                digest.update(ChannelMapper.toYaml(channel.getChannelDefinition()).getBytes(StandardCharsets.UTF_8));
+                digest.update(ChannelManifestMapper.toYaml(channel.getChannelManifest()).getBytes(StandardCharsets.UTF_8));
+                if (channel.getChannelBlocklist() != null) {
+                    digest.update(canonicalBlocklist(channel.getChannelBlocklist()).getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            StringBuilder sb = new StringBuilder();
+            for (byte b: digest.digest()) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new IllegalStateException("Couldn't compute channels digest", e);
+        }
+    }
+
+    /**
+     * Serializes a blocklist independently of the iteration order of its entry and version sets, which are hash sets
+     * of objects without equals() and hashCode().
+     */
+    static String canonicalBlocklist(Blocklist blocklist) {
+        return canonicalize(BLOCKLIST_MAPPER.valueToTree(blocklist)).toString();
+    }
+
+    private static JsonNode canonicalize(JsonNode node) {
+        if (node.isArray()) {
+            List<JsonNode> elements = new ArrayList<>();
+            node.forEach(element -> elements.add(canonicalize(element)));
+            elements.sort(Comparator.comparing(JsonNode::toString));
+            ArrayNode array = JsonNodeFactory.instance.arrayNode();
+            array.addAll(elements);
+            return array;
+        } else if (node.isObject()) {
+            Map<String, JsonNode> fields = new TreeMap<>();
+            node.fields().forEachRemaining(field -> fields.put(field.getKey(), canonicalize(field.getValue())));
+            ObjectNode object = JsonNodeFactory.instance.objectNode();
+            object.setAll(fields);
+            return object;
+        }
+        return node;
+    }
+
+    /**
+     * Returns a stored lookup result.
+     *
+     * @param key lookup key
+     * @return stored result, or null if there is no valid result stored for given key
+     */
+    Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt < clock.millis()) {
+            entries.remove(key, entry);
+            modified = true;
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Stores a lookup result.
+     *
+     * @param key lookup key
+     * @param result resolved version, or null if no stream was found for the artifact
+     * @param expires should the result expire after the TTL?
+     */
+    void put(String key, VersionResult result, boolean expires) {
+        long expiresAt = expires ? clock.millis() + ttlMillis : NEVER_EXPIRES;
+        if (result == null) {
+            entries.put(key, new Entry(expiresAt, null, null));
+        } else {
+            entries.put(key, new Entry(expiresAt, result.getVersion(), result.getChannelName().orElse(null)));
+        }
+        modified = true;
+    }
+
+    /**
+     * Writes the results to the cache file, if there were any changes.
+     */
+    public synchronized void save() {
+        if (!modified) {
+            return;
+        }
+        Properties properties = new Properties();
+        entries.forEach((key, entry) -> properties.setProperty(key, entry.toString()));
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            Path tempFile = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), ".tmp");
+            try (OutputStream os = Files.newOutputStream(tempFile)) {
+                properties.store(os, null);
+            }
+            Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            modified = false;
+        } catch (IOException e) {
+            logger.warnf("Couldn't write version cache file %s: %s", cacheFile, e.getMessage());
+        }
+    }
+
+    private void load() {
+        if (!Files.isRegularFile(cacheFile)) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (InputStream is = Files.newInputStream(cacheFile)) {
+            properties.load(is);
+        } catch (IOException e) {
+            logger.warnf("Couldn't read version cache file %s: %s", cacheFile, e.getMessage());
+            return;
+        }
+        long now = clock.millis();
+        for (String key: properties.stringPropertyNames()) {
+            Entry entry = Entry.parse(properties.getProperty(key));
+            if (entry != null && entry.expiresAt >= now) {
+                entries.put(key, entry);
+            } else {
+                modified = true;
+            }
+        }
+    }
+
+    /**
+     * Stored lookup result.
+     */
+    static final class Entry {
+        private final long expiresAt;
+        private final String version;
+        private final String channelName;
+
+        Entry(long expiresAt, String version, String channelName) {
+            this.expiresAt = expiresAt;
+            this.version = version;
+            this.channelName = channelName;
+        }
+
+        /**
+         * @return resolved version, or null if no stream was found for the artifact
+         */
+        VersionResult toVersionResult() {
+            return version == null ? null : new VersionResult(version, channelName);
+        }
+
+        static Entry parse(String value) {
+            String[] segments = value.split(SEPARATOR, 3);
+            if (segments.length != 3) {
+                return null;
+            }
+            try {
+                return new Entry(Long.parseLong(segments[0]), emptyToNull(segments[1]), emptyToNull(segments[2]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return expiresAt + SEPARATOR + nullToEmpty(version) + SEPARATOR + nullToEmpty(channelName);
+        }
+
+        private static String emptyToNull(String s) {
+            return s.isEmpty() ? null : s;
+        }
+
+        private static String nullToEmpty(String s) {
+            return s == null ? "" : s;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.wildfly.channeltools.resolver;
+
+import java.util.Locale;
+
+/**
+ * Determines whether remote repositories are consulted when resolving artifact versions.
+ */
+public enum ResolutionMode {
+
+    /**
+     * Remote repositories are consulted according to their update policies.
+     */
+    ONLINE,
+
+    /**
+     * Remote repositories are never consulted, versions are resolved from the local repository only, i.e. from the
+     * cached maven metadata and the version directories of artifacts present in the local repository.
+     */
+    OFFLINE,
+
+    /**
+     * Locally cached maven metadata are used when present, remote repositories are only consulted for artifacts that
+     * have no metadata in the local repository.
+     */
+    LOCAL_FIRST;
+
+    /**
+     * Parses the mode name, case-insensitive, accepting both "-" and "_" as word separators (e.g. "local-first").
+     *
+     * @throws IllegalArgumentException if the name doesn't represent any mode
+     */
+    public static ResolutionMode parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ENGLISH).replace('-', '_'));
+    }
+}
@@ -0,0 +1,18 @@
+package org.wildfly.channeltools.resolver;
+
+/**
+ * Transport used by the {@link DefaultMavenVersionsResolver} to access remote repositories.
+ */
+public enum ResolverTransport {
+
+    /**
+     * Maven Wagon based transport.
+     */
+    WAGON,
+
+    /**
+     * Apache HttpClient based transport, keeping a pool of persistent connections shared by all requests performed
+     * within a resolver, and supporting compressed responses.
+     */
+    HTTP
+}
@@ -5,8 +5,12 @@ public final class VersionUtils {
     private VersionUtils() {
     }
 
+    /**
+     * @return true if the whole value is a single property reference, e.g. "${version.a}", but not
+     *  "${version.major}.${version.minor}"
+     */
     public static boolean isProperty(String value) {
-        return value.startsWith("${") && value.endsWith("}");
+        return value.startsWith("${") && value.indexOf('}') == value.length() - 1;
     }
 
     public static String extractPropertyName(String value) {
@@ -0,0 +1,206 @@
+package org.wildfly.channeltools.resolver;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.wildfly.channel.ArtifactCoordinate;
+import org.wildfly.channel.Channel;
+import org.wildfly.channel.ChannelManifestCoordinate;
+import org.wildfly.channel.ChannelMetadataCoordinate;
+import org.wildfly.channel.NoStreamFoundException;
+import org.wildfly.channel.Repository;
+import org.wildfly.channel.VersionResult;
+import org.wildfly.channel.spi.MavenVersionsResolver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CachingChannelSessionTestCase {
+
+    private static final String MANIFEST = "schemaVersion: 1.0.0\n"
+            + "streams:\n"
+            + "  - groupId: org.example\n"
+            + "    artifactId: fixed\n"
+            + "    version: 1.0.0\n"
+            + "  - groupId: org.example\n"
+            + "    artifactId: pattern\n"
+            + "    versionPattern: \"2\\\\..*\"\n";
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicInteger resolverCalls = new AtomicInteger();
+    private List<Channel> channels;
+
+    @BeforeEach
+    public void before() throws IOException {
+        Path manifestFile = tempDir.resolve("manifest.yaml");
+        Files.writeString(manifestFile, MANIFEST);
+        ChannelManifestCoordinate coordinate = new ChannelManifestCoordinate(manifestFile.toUri().toURL());
+        channels = List.of(new Channel("test-channel", null, null, List.of(), coordinate, null, null));
+    }
+
+    @Test
+    public void testLookupsAreMemoized() {
+        try (CachingChannelSession session = new CachingChannelSession(channels, this::createResolver, 100)) {
+            assertThat(session.findLatestMavenArtifactVersion("org.example", "pattern", "jar", null, "2.0.0").getVersion())
+                    .isEqualTo("2.1.0");
+            assertThat(session.findLatestMavenArtifactVersion("org.example", "pattern", "jar", null, "2.0.0").getVersion())
+                    .isEqualTo("2.1.0");
+            assertThat(session.findLatestMavenArtifactVersion("org.example", "fixed", "jar", null, "0.9").getVersion())
+                    .isEqualTo("1.0.0");
+
+            assertThat(resolverCalls.get()).isEqualTo(1);
+            assertThat(session.getCacheHits()).isEqualTo(1);
+            assertThat(session.getCacheMisses()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void testMissingStreamsAreMemoized() {
+        try (CachingChannelSession session = new CachingChannelSession(channels, this::createResolver, 100)) {
+            List<NoStreamFoundException> exceptions = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                assertThatThrownBy(() -> session.findLatestMavenArtifactVersion("org.other", "other", "jar", null, "1.0"))
+                        .isInstanceOfSatisfying(NoStreamFoundException.class, exceptions::add);
+            }
+
+            // every caller gets its own exception instance with the same details
+            assertThat(exceptions.get(0)).isNotSameAs(exceptions.get(1));
+            assertThat(exceptions.get(1)).hasMessage(exceptions.get(0).getMessage());
+            assertThat(exceptions.get(1).getUnresolvedArtifacts()).isEqualTo(exceptions.get(0).getUnresolvedArtifacts());
+            assertThat(session.getCacheHits()).isEqualTo(1);
+            assertThat(session.getCacheMisses()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        try (CachingChannelSession session = new CachingChannelSession(channels, this::createResolver, 1)) {
+            session.findLatestMavenArtifactVersion("org.example", "pattern", "jar", null, "2.0.0");
+            session.findLatestMavenArtifactVersion("org.example", "fixed", "jar", null, "0.9");
+            session.findLatestMavenArtifactVersion("org.example", "pattern", "jar", null, "2.0.0");
+
+            assertThat(resolverCalls.get()).isEqualTo(2);
+            assertThat(session.getCacheHits()).isEqualTo(0);
+            assertThat(session.getCacheMisses()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    public void testResultsArePersisted() {
+        Path cacheDir = tempDir.resolve("cache");
+        for (int i = 0; i < 2; i++) {
+            try (CachingChannelSession session = new CachingChannelSession(channels, this::createResolver, 100,
+                    cacheDir, Duration.ofHours(1), ResolutionMode.ONLINE)) {
+                assertThat(session.findLatestMavenArtifactVersion("org.example", "pattern", "jar", null, "2.0.0").getVersion())
+                        .isEqualTo("2.1.0");
+                assertThat(session.findLatestMavenArtifactVersion("org.example", "fixed", "jar", null, "0.9").getVersion())
+                        .isEqualTo("1.0.0");
+                assertThatThrownBy(() -> session.findLatestMavenArtifactVersion("org.other", "other", "jar", null, "1.0"))
+                        .isInstanceOf(NoStreamFoundException.class);
+
+                assertThat(session.getPersistentCacheHits()).isEqualTo(i == 0 ? 0 : 3);
+            }
+        }
+
+        assertThat(resolverCalls.get()).isEqualTo(1);
+        assertThat(cacheDir).isDirectoryContaining(p -> p.getFileName().toString().endsWith(".properties"));
+    }
+
+    @Test
+    public void testResultsPersistedOfflineAreNotUsedOnline() {
+        Path cacheDir = tempDir.resolve("cache");
+        for (ResolutionMode mode: List.of(ResolutionMode.OFFLINE, ResolutionMode.ONLINE)) {
+            try (CachingChannelSession session = new CachingChannelSession(channels, this::createResolver, 100,
+                    cacheDir, Duration.ofHours(1), mode)) {
+                session.findLatestMavenArtifactVersion("org.example", "pattern", "jar", null, "2.0.0");
+
+                assertThat(session.getPersistentCacheHits()).isEqualTo(0);
+            }
+        }
+
+        assertThat(resolverCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testNonThrowingLookup() throws IOException {
+        try (CachingChannelSession session = new CachingChannelSession(channels, this::createResolver, 100)) {
+            assertThat(session.findLatestMavenArtifactVersionIfPresent("org.example", "pattern", "jar", null, "2.0.0"))
+                    .map(VersionResult::getVersion).contains("2.1.0");
+            assertThat(session.findLatestMavenArtifactVersionIfPresent("org.example", "other", "jar", null, "1.0"))
+                    .isEmpty();
+
+            // the missing stream was rejected by the stream filter
+            assertThat(session.getFilteredLookups()).isEqualTo(1);
+            assertThat(session.getCacheMisses()).isEqualTo(1);
+        }
+
+        Path manifestFile = tempDir.resolve("wildcard-manifest.yaml");
+        Files.writeString(manifestFile, "schemaVersion: 1.0.0\n"
+                + "streams:\n"
+                + "  - groupId: org.example\n"
+                + "    artifactId: \"*\"\n"
+                + "    version: 1.0.0\n");
+        ChannelManifestCoordinate coordinate = new ChannelManifestCoordinate(manifestFile.toUri().toURL());
+        List<Channel> wildcardChannels = List.of(new Channel("test-channel", null, null, List.of(), coordinate, null,
+                Channel.NoStreamStrategy.NONE));
+        try (CachingChannelSession session = new CachingChannelSession(wildcardChannels, this::createResolver, 100)) {
+            assertThat(session.findLatestMavenArtifactVersionIfPresent("org.example", "any", "jar", null, "0.1"))
+                    .map(VersionResult::getVersion).contains("1.0.0");
+            assertThat(session.findLatestMavenArtifactVersionIfPresent("org.other", "any", "jar", null, "0.1"))
+                    .isEmpty();
+            assertThat(session.getFilteredLookups()).isEqualTo(1);
+        }
+    }
+
+    private MavenVersionsResolver createResolver(Collection<Repository> repositories) {
+        return new MavenVersionsResolver() {
+            @Override
+            public Set<String> getAllVersions(String groupId, String artifactId, String extension, String classifier) {
+                resolverCalls.incrementAndGet();
+                return new HashSet<>(Set.of("2.0.0", "2.1.0", "3.0.0"));
+            }
+
+            @Override
+            public File resolveArtifact(String groupId, String artifactId, String extension, String classifier,
+                    String version) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public List<File> resolveArtifacts(List<ArtifactCoordinate> coordinates) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public List<URL> resolveChannelMetadata(List<? extends ChannelMetadataCoordinate> coordinates) {
+                return coordinates.stream().map(ChannelMetadataCoordinate::getUrl).collect(Collectors.toList());
+            }
+
+            @Override
+            public String getMetadataReleaseVersion(String groupId, String artifactId) {
+                return null;
+            }
+
+            @Override
+            public String getMetadataLatestVersion(String groupId, String artifactId) {
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,162 @@
+package org.wildfly.channeltools.resolver;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.wildfly.channel.ArtifactCoordinate;
+import org.wildfly.channel.Repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DefaultMavenVersionsResolverTestCase {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testBulkVersionResolution() throws IOException {
+        Path remoteRepo = tempDir.resolve("remote");
+        writeMetadata(remoteRepo, "org.example", "a", "1.0", "1.1");
+        writeMetadata(remoteRepo, "org.example", "b", "2.0");
+
+        DefaultMavenVersionsResolverFactory factory = new DefaultMavenVersionsResolverFactory(
+                tempDir.resolve("local").toString(), false).setParallelism(4);
+        DefaultMavenVersionsResolver resolver = factory.create(
+                List.of(new Repository("test", remoteRepo.toUri().toString())));
+
+        ArtifactCoordinate a = new ArtifactCoordinate("org.example", "a", "jar", null, "");
+        ArtifactCoordinate b = new ArtifactCoordinate("org.example", "b", "jar", null, "");
+        ArtifactCoordinate c = new ArtifactCoordinate("org.example", "c", "jar", null, "");
+        Map<ArtifactCoordinate, Set<String>> versions = resolver.getAllVersions(List.of(a, b, c));
+
+        assertThat(versions).containsOnly(
+                Map.entry(a, Set.of("1.0", "1.1")),
+                Map.entry(b, Set.of("2.0")),
+                Map.entry(c, Set.of()));
+    }
+
+    @Test
+    public void testHttpTransportReusesConnections() throws IOException {
+        Path remoteRepo = tempDir.resolve("remote");
+        List<ArtifactCoordinate> coordinates = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            writeMetadata(remoteRepo, "org.example", "artifact-" + i, "1." + i);
+            coordinates.add(new ArtifactCoordinate("org.example", "artifact-" + i, "jar", null, ""));
+        }
+
+        Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            Path file = remoteRepo.resolve(exchange.getRequestURI().getPath().substring(1));
+            if (Files.isRegularFile(file)) {
+                byte[] content = Files.readAllBytes(file);
+                exchange.sendResponseHeaders(200, content.length);
+                exchange.getResponseBody().write(content);
+            } else {
+                byte[] content = "Not found".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(404, content.length);
+                exchange.getResponseBody().write(content);
+            }
+            exchange.close();
+        });
+        server.start();
+        try {
+            String url = "http://localhost:" + server.getAddress().getPort() + "/";
+            DefaultMavenVersionsResolver resolver = new DefaultMavenVersionsResolverFactory(
+                    tempDir.resolve("local").toString(), false)
+                    .setTransport(ResolverTransport.HTTP)
+                    .create(List.of(new Repository("test", url)));
+
+            Map<ArtifactCoordinate, Set<String>> versions = resolver.getAllVersions(coordinates);
+
+            assertThat(versions).hasSize(20);
+            assertThat(versions.get(coordinates.get(7))).containsExactly("1.7");
+            // all the requests were sent over a single persistent connection
+            assertThat(clientPorts).hasSize(1);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testOfflineResolution() throws IOException {
+        Path localRepo = tempDir.resolve("local");
+        for (String version: List.of("1.0", "1.1")) {
+            Path versionDir = localRepo.resolve("org/example/a").resolve(version);
+            Files.createDirectories(versionDir);
+            Files.writeString(versionDir.resolve("a-" + version + ".jar"), "");
+        }
+        // directory without the artifact file is not considered a local version
+        Files.createDirectories(localRepo.resolve("org/example/a/1.2"));
+
+        DefaultMavenVersionsResolver resolver = new DefaultMavenVersionsResolverFactory(localRepo.toString(), false)
+                .setResolutionMode(ResolutionMode.OFFLINE)
+                .create(List.of(new Repository("unreachable", "http://localhost:1/")));
+
+        assertThat(resolver.getAllVersions("org.example", "a", "jar", null)).containsOnly("1.0", "1.1");
+        assertThat(resolver.getAllVersions("org.example", "a", "pom", null)).isEmpty();
+    }
+
+    @Test
+    public void testInvalidParallelism() {
+        DefaultMavenVersionsResolverFactory factory = new DefaultMavenVersionsResolverFactory(
+                tempDir.resolve("local").toString(), false);
+        assertThatThrownBy(() -> factory.setParallelism(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(factory.setParallelism(2).getParallelism()).isEqualTo(2);
+    }
+
+    @Test
+    public void testLocalFirstResolution() throws IOException {
+        Path remoteRepo = tempDir.resolve("remote");
+        String localRepo = tempDir.resolve("local").toString();
+        List<Repository> repositories = List.of(new Repository("test", remoteRepo.toUri().toString()));
+        writeMetadata(remoteRepo, "org.example", "a", "1.0");
+
+        assertThat(new DefaultMavenVersionsResolverFactory(localRepo, false)
+                .setResolutionMode(ResolutionMode.LOCAL_FIRST)
+                .create(repositories)
+                .getAllVersions("org.example", "a", "jar", null)).containsOnly("1.0");
+
+        writeMetadata(remoteRepo, "org.example", "a", "1.0", "1.1");
+        writeMetadata(remoteRepo, "org.example", "b", "2.0");
+
+        DefaultMavenVersionsResolver resolver = new DefaultMavenVersionsResolverFactory(localRepo, false)
+                .setResolutionMode(ResolutionMode.LOCAL_FIRST)
+                .create(repositories);
+        // metadata cached in the local repository are used
+        assertThat(resolver.getAllVersions("org.example", "a", "jar", null)).containsOnly("1.0");
+        // remote repository is consulted when there are no cached metadata
+        assertThat(resolver.getAllVersions("org.example", "b", "jar", null)).containsOnly("2.0");
+    }
+
+    private static void writeMetadata(Path repository, String groupId, String artifactId, String... versions)
+            throws IOException {
+        Path dir = repository.resolve(groupId.replace('.', '/')).resolve(artifactId);
+        Files.createDirectories(dir);
+        StringBuilder sb = new StringBuilder();
+        sb.append("<metadata>\n")
+                .append("  <groupId>").append(groupId).append("</groupId>\n")
+                .append("  <artifactId>").append(artifactId).append("</artifactId>\n")
+                .append("  <versioning>\n    <versions>\n");
+        for (String version: versions) {
+            sb.append("      <version>").append(version).append("</version>\n");
+        }
+        sb.append("    </versions>\n  </versioning>\n</metadata>\n");
+        Files.writeString(dir.resolve("maven-metadata.xml"), sb.toString());
+    }
+}
@@ -0,0 +1,108 @@
+package org.wildfly.channeltools.resolver;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.wildfly.channel.Blocklist;
+import org.wildfly.channel.BlocklistEntry;
+import org.wildfly.channel.Channel;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.RuntimeChannel;
+import org.wildfly.channel.VersionResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PersistentVersionCacheTestCase {
+
+    private static final String DIGEST = "digest";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testRoundTrip() {
+        PersistentVersionCache cache = new PersistentVersionCache(tempDir, DIGEST, Duration.ofMinutes(10));
+        cache.put("g:a:jar::1.0", new VersionResult("1.1", "channel"), false);
+        cache.put("g:b:jar::1.0", null, false);
+        cache.save();
+
+        cache = new PersistentVersionCache(tempDir, DIGEST, Duration.ofMinutes(10));
+        assertThat(cache.get("g:a:jar::1.0").toVersionResult()).isEqualTo(new VersionResult("1.1", "channel"));
+        assertThat(cache.get("g:b:jar::1.0")).isNotNull();
+        assertThat(cache.get("g:b:jar::1.0").toVersionResult()).isNull();
+        assertThat(cache.get("g:c:jar::1.0")).isNull();
+
+        assertThat(new PersistentVersionCache(tempDir, "other-digest", Duration.ofMinutes(10)).get("g:a:jar::1.0"))
+                .isNull();
+    }
+
+    @Test
+    public void testExpiringEntries() {
+        Instant now = Instant.now();
+        PersistentVersionCache cache = new PersistentVersionCache(tempDir, DIGEST, Duration.ofMinutes(10),
+                Clock.fixed(now, ZoneOffset.UTC));
+        cache.put("g:a:jar::1.0", new VersionResult("1.1", "channel"), true);
+        cache.put("g:b:jar::1.0", new VersionResult("1.2", "channel"), false);
+        cache.save();
+
+        cache = new PersistentVersionCache(tempDir, DIGEST, Duration.ofMinutes(10),
+                Clock.fixed(now.plus(Duration.ofMinutes(5)), ZoneOffset.UTC));
+        assertThat(cache.get("g:a:jar::1.0")).isNotNull();
+
+        cache = new PersistentVersionCache(tempDir, DIGEST, Duration.ofMinutes(10),
+                Clock.fixed(now.plus(Duration.ofMinutes(15)), ZoneOffset.UTC));
+        assertThat(cache.get("g:a:jar::1.0")).isNull();
+        assertThat(cache.get("g:b:jar::1.0")).isNotNull();
+    }
+
+    @Test
+    public void testBlocklistDigestDoesNotDependOnOrder() {
+        Blocklist blocklist1 = new Blocklist("1.0.0", orderedSet(
+                new BlocklistEntry("org.test", "a", orderedSet("1.0", "1.1", "1.2")),
+                new BlocklistEntry("org.test", "b", orderedSet("2.0")),
+                new BlocklistEntry("org.other", "c", orderedSet("3.0", "3.1"))));
+        Blocklist blocklist2 = new Blocklist("1.0.0", orderedSet(
+                new BlocklistEntry("org.other", "c", orderedSet("3.1", "3.0")),
+                new BlocklistEntry("org.test", "b", orderedSet("2.0")),
+                new BlocklistEntry("org.test", "a", orderedSet("1.2", "1.0", "1.1"))));
+        Blocklist blocklist3 = new Blocklist("1.0.0", orderedSet(
+                new BlocklistEntry("org.test", "a", orderedSet("1.0", "1.1")),
+                new BlocklistEntry("org.test", "b", orderedSet("2.0")),
+                new BlocklistEntry("org.other", "c", orderedSet("3.0", "3.1"))));
+
+        assertThat(PersistentVersionCache.canonicalBlocklist(blocklist1))
+                .contains("org.test", "1.2")
+                .isEqualTo(PersistentVersionCache.canonicalBlocklist(blocklist2));
+        assertThat(PersistentVersionCache.digest(List.of(runtimeChannel(blocklist1)), ResolutionMode.ONLINE))
+                .isEqualTo(PersistentVersionCache.digest(List.of(runtimeChannel(blocklist2)), ResolutionMode.ONLINE))
+                .isNotEqualTo(PersistentVersionCache.digest(List.of(runtimeChannel(blocklist3)), ResolutionMode.ONLINE));
+    }
+
+    @Test
+    public void testDigestDependsOnResolutionMode() {
+        List<RuntimeChannel> channels = List.of(runtimeChannel(null));
+
+        assertThat(PersistentVersionCache.digest(channels, ResolutionMode.ONLINE))
+                .isEqualTo(PersistentVersionCache.digest(channels, ResolutionMode.ONLINE))
+                .isNotEqualTo(PersistentVersionCache.digest(channels, ResolutionMode.OFFLINE))
+                .isNotEqualTo(PersistentVersionCache.digest(channels, ResolutionMode.LOCAL_FIRST));
+    }
+
+    private static RuntimeChannel runtimeChannel(Blocklist blocklist) {
+        return new RuntimeChannel(new Channel("test-channel", null, null, List.of(), null, null, null),
+                new ChannelManifest(null, null, null, List.of()), blocklist);
+    }
+
+    @SafeVarargs
+    private static <T> Set<T> orderedSet(T... elements) {
+        return new LinkedHashSet<>(List.of(elements));
+    }
+}
@@ -14,14 +14,16 @@ import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.repository.LocalRepository;
 import org.eclipse.aether.repository.LocalRepositoryManager;
 import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
 import org.wildfly.channel.Channel;
 import org.wildfly.channel.ChannelManifestCoordinate;
 import org.wildfly.channel.ChannelMapper;
-import org.wildfly.channel.ChannelSession;
 import org.wildfly.channel.Repository;
 import org.wildfly.channel.maven.ChannelCoordinate;
 import org.wildfly.channel.maven.VersionResolverFactory;
 import org.wildfly.channelplugin.utils.IOUtils;
+import org.wildfly.channeltools.resolver.CachingChannelSession;
+import org.wildfly.channeltools.resolver.ResolutionMode;
 
 import javax.inject.Inject;
 import java.io.IOException;
@@ -29,9 +31,12 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 public abstract class AbstractChannelMojo extends AbstractMojo {
@@ -80,6 +85,56 @@ public abstract class AbstractChannelMojo extends AbstractMojo {
     @Parameter(property = "localRepository")
     String localRepositoryPath;
 
+    /**
+     * If true and the 'localRepository' is not set, a persistent cache directory shared by subsequent runs is used as
+     * the local repository, instead of a fresh temporary directory.
+     */
+    @Parameter(property = "sharedCache", defaultValue = "false")
+    boolean sharedCache;
+
+    /**
+     * Location of the shared cache directory.
+     */
+    @Parameter(property = "sharedCacheDirectory", defaultValue = "${user.home}/.cache/wildfly-channel-maven-plugin")
+    String sharedCacheDirectory;
+
+    /**
+     * Maximum size of the shared cache directory in megabytes. Least recently used files are evicted when the size is
+     * exceeded. Files used during the last hour are kept, as they may be in use by a concurrently running build.
+     */
+    @Parameter(property = "sharedCacheMaxSize", defaultValue = "1024")
+    int sharedCacheMaxSize;
+
+    /**
+     * Determines whether remote repositories are consulted when resolving artifact versions. One of "online",
+     * "offline" (only the local repository is used) or "local-first" (remote repositories are only consulted for
+     * artifacts that have no metadata in the local repository).
+     * <p>
+     * The "offline" mode requires either the localRepository or the sharedCache parameter to be set. Version lookup
+     * results persisted in the versionCacheDirectory are kept apart per mode.
+     */
+    @Parameter(property = "resolutionMode", defaultValue = "online")
+    String resolutionMode;
+
+    /**
+     * Maximum number of channel version lookups remembered during a single run.
+     */
+    @Parameter(property = "versionCacheSize", defaultValue = "10000")
+    int versionCacheSize;
+
+    /**
+     * Directory where the channel version lookup results are persisted, so that they can be reused by subsequent runs
+     * with the same channels. Results are not persisted if not set.
+     */
+    @Parameter(property = "versionCacheDirectory")
+    String versionCacheDirectory;
+
+    /**
+     * Number of minutes after which persisted results of version pattern stream lookups expire.
+     */
+    @Parameter(property = "versionCacheTtl", defaultValue = "60")
+    int versionCacheTtl;
+
     @Inject
     MavenSession mavenSession;
 
@@ -93,7 +148,7 @@ public abstract class AbstractChannelMojo extends AbstractMojo {
     PomIO pomIO;
 
     protected List<Channel> channels = new ArrayList<>();
-    protected ChannelSession channelSession;
+    protected CachingChannelSession channelSession;
 
     protected void initChannelSession() throws MojoExecutionException {
         try {
@@ -151,9 +206,18 @@ public abstract class AbstractChannelMojo extends AbstractMojo {
             channels = overrideRemoteRepositories(channels, remoteRepositories);
         }
 
+        ResolutionMode mode = parseResolutionMode();
+        if (mode == ResolutionMode.OFFLINE && StringUtils.isBlank(localRepositoryPath) && !sharedCache) {
+            throw new MojoExecutionException("Resolution mode 'offline' requires either the localRepository or the"
+                    + " sharedCache parameter to be set, a temporary local repository would be empty");
+        }
         if (StringUtils.isBlank(localRepositoryPath)) {
             try {
-                localRepositoryPath = IOUtils.createTemporaryCache();
+                if (sharedCache) {
+                    localRepositoryPath = initSharedCache();
+                } else {
+                    localRepositoryPath = IOUtils.createTemporaryCache();
+                }
             } catch (IOException e) {
                 throw new MojoExecutionException("Cannot create local maven cache", e);
             }
@@ -164,8 +228,66 @@ public abstract class AbstractChannelMojo extends AbstractMojo {
         final LocalRepositoryManager localRepoManager = repositorySystem.newLocalRepositoryManager(repositorySystemSession,
                 localRepository);
         repositorySystemSession.setLocalRepositoryManager(localRepoManager);
+        applyResolutionMode(repositorySystemSession, mode);
+
+        Path versionCachePath = null;
+        if (StringUtils.isNotBlank(versionCacheDirectory)) {
+            versionCachePath = Path.of(versionCacheDirectory);
+            if (!versionCachePath.isAbsolute()) {
+                versionCachePath = Path.of(mavenSession.getExecutionRootDirectory()).resolve(versionCachePath);
+            }
+        }
+        channelSession = new CachingChannelSession(channels,
+                new VersionResolverFactory(repositorySystem, repositorySystemSession), versionCacheSize,
+                versionCachePath, Duration.ofMinutes(versionCacheTtl), mode);
+    }
+
+    private String initSharedCache() throws IOException {
+        Path cacheDirectory = Path.of(sharedCacheDirectory);
+        Files.createDirectories(cacheDirectory);
+        int evicted = IOUtils.evictLeastRecentlyUsed(cacheDirectory, sharedCacheMaxSize * 1024L * 1024L);
+        if (evicted > 0) {
+            getLog().info(String.format("Evicted %d least recently used files from the cache %s", evicted,
+                    cacheDirectory));
+        }
+        getLog().debug("Using shared cache directory " + cacheDirectory);
+        return cacheDirectory.toString();
+    }
 
-        channelSession = new ChannelSession(channels, new VersionResolverFactory(repositorySystem, repositorySystemSession));
+    private ResolutionMode parseResolutionMode() throws MojoExecutionException {
+        try {
+            return StringUtils.isBlank(resolutionMode) ? ResolutionMode.ONLINE : ResolutionMode.parse(resolutionMode);
+        } catch (IllegalArgumentException e) {
+            String acceptedModes = Arrays.stream(ResolutionMode.values())
+                    .map(m -> m.name().toLowerCase(Locale.ENGLISH).replace('_', '-'))
+                    .collect(Collectors.joining(", "));
+            throw new MojoExecutionException(String.format("Invalid resolution mode: '%s', accepted values are: %s",
+                    resolutionMode, acceptedModes), e);
+        }
+    }
+
+    private static void applyResolutionMode(DefaultRepositorySystemSession repositorySystemSession,
+            ResolutionMode mode) {
+        if (mode == ResolutionMode.OFFLINE) {
+            repositorySystemSession.setOffline(true);
+        } else if (mode == ResolutionMode.LOCAL_FIRST) {
+            repositorySystemSession.setUpdatePolicy(RepositoryPolicy.UPDATE_POLICY_NEVER);
+        }
+    }
+
+    /**
+     * Prints the channel version cache statistics and closes the channel session, persisting the version cache. Should
+     * be called at the end of the mojo execution.
+     */
+    protected void closeChannelSession() {
+        if (channelSession != null) {
+            getLog().info(String.format("Channel version cache: %d hits, %d misses (%d resolved from the persistent cache),"
+                            + " %d lookups skipped by the stream filter", channelSession.getCacheHits(),
+                    channelSession.getCacheMisses(), channelSession.getPersistentCacheHits(),
+                    channelSession.getFilteredLookups()));
+            channelSession.close();
+            channelSession = null;
+        }
     }
 
     protected List<Channel> resolveChannelsFromGav(String gavString) {
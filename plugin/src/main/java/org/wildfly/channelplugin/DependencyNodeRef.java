@@ -0,0 +1,49 @@
+package org.wildfly.channelplugin;
+
+import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Reference to a node of a module dependency graph, as seen by the transitive dependency discovery. Holds the artifact
+ * coordinates, the scope and the exclusions that apply to the artifact in the module.
+ * <p>
+ * Used to deduplicate the nodes collected from a single module graph, see {@link TransitiveDependencyVisitor}. The
+ * exclusions are specific to the module, so references from different modules are merged by
+ * {@link TransitiveDependencies} instead.
+ */
+class DependencyNodeRef {
+    private final ArtifactRef artifact;
+    private final String scope;
+    private final Collection<ProjectRef> exclusions;
+
+    public DependencyNodeRef(ArtifactRef artifact, String scope, Collection<ProjectRef> exclusions) {
+        this.artifact = artifact;
+        this.scope = scope;
+        this.exclusions = exclusions;
+    }
+
+    public ArtifactRef getArtifact() {
+        return artifact;
+    }
+
+    public Collection<ProjectRef> getExclusions() {
+        return exclusions;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DependencyNodeRef that = (DependencyNodeRef) o;
+        return Objects.equals(artifact, that.artifact) && Objects.equals(scope, that.scope)
+                && Objects.equals(exclusions, that.exclusions);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(artifact, scope, exclusions);
+    }
+}
@@ -17,7 +17,6 @@ import org.wildfly.channelplugin.manipulation.PomManipulator;
 import org.wildfly.channelplugin.utils.PMEUtils;
 
 import javax.inject.Inject;
-import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
@@ -116,12 +115,8 @@ public class InjectRepositoriesMojo extends AbstractMojo {
 
         repositories.forEach((id, url) -> {
             if (!existingRepositories.containsValue(url) && !existingRepositories.containsKey(id)) {
-                try {
-                    logger.infof("Inserting repository %s", url);
-                    manipulator.injectRepository(id, url);
-                } catch (XMLStreamException e) {
-                    ChannelPluginLogger.LOGGER.errorf("Failed to inject repository: %s", e.getMessage());
-                }
+                logger.infof("Inserting repository %s", url);
+                manipulator.injectRepository(id, url);
             } else {
                 logger.infof("Repository with URL %s is already present.", url);
             }
@@ -133,12 +128,8 @@ public class InjectRepositoriesMojo extends AbstractMojo {
 
         repositories.forEach((id, url) -> {
             if (!existingPluginRepositories.containsValue(url) && !existingPluginRepositories.containsKey(id)) {
-                try {
-                    logger.infof("Inserting plugin repository %s", url);
-                    manipulator.injectPluginRepository(id, url);
-                } catch (XMLStreamException e) {
-                    ChannelPluginLogger.LOGGER.errorf("Failed to inject plugin repository: %s", e.getMessage());
-                }
+                logger.infof("Inserting plugin repository %s", url);
+                manipulator.injectPluginRepository(id, url);
             } else {
                 logger.infof("Plugin repository with URL %s is already present.", url);
             }
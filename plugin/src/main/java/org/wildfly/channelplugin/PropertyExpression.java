@@ -0,0 +1,78 @@
+package org.wildfly.channelplugin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Parsed form of a property value, e.g. "${version.major}.${version.minor}.Final", as a sequence of literal segments
+ * and property references.
+ * <p>
+ * Nested references like "${version.${suffix}}" are not supported, the reference name is taken up to the first closing
+ * brace. An unterminated "${" is treated as a literal.
+ */
+class PropertyExpression {
+
+    private final List<String> literals;
+    private final List<String> references;
+
+    private PropertyExpression(List<String> literals, List<String> references) {
+        // literals.get(i) precedes references.get(i), the last literal follows the last reference
+        this.literals = literals;
+        this.references = references;
+    }
+
+    static PropertyExpression parse(String value) {
+        List<String> literals = new ArrayList<>();
+        List<String> references = new ArrayList<>();
+        int position = 0;
+        int start;
+        while ((start = value.indexOf("${", position)) >= 0) {
+            int end = value.indexOf('}', start + 2);
+            if (end < 0) {
+                break;
+            }
+            literals.add(value.substring(position, start));
+            references.add(value.substring(start + 2, end));
+            position = end + 1;
+        }
+        literals.add(value.substring(position));
+        return new PropertyExpression(literals, references);
+    }
+
+    /**
+     * @return names of the referenced properties, in the order of appearance
+     */
+    List<String> getReferences() {
+        return Collections.unmodifiableList(references);
+    }
+
+    /**
+     * @return true if the value doesn't reference any property
+     */
+    boolean isLiteral() {
+        return references.isEmpty();
+    }
+
+    /**
+     * Substitutes the property references with values provided by the resolver.
+     *
+     * @param resolver provides property values, returns null for properties that can't be resolved
+     * @return the interpolated value, or null if any of the referenced properties could not be resolved
+     */
+    String evaluate(Function<String, String> resolver) {
+        if (references.isEmpty()) {
+            return literals.get(0);
+        }
+        StringBuilder sb = new StringBuilder(literals.get(0));
+        for (int i = 0; i < references.size(); i++) {
+            String value = resolver.apply(references.get(i));
+            if (value == null) {
+                return null;
+            }
+            sb.append(value).append(literals.get(i + 1));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,118 @@
+package org.wildfly.channelplugin;
+
+import org.apache.maven.project.MavenProject;
+import org.commonjava.maven.ext.common.model.Project;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers resolved version properties for the duration of the reactor processing, so that the parent chains and
+ * property reference chains are only walked once per distinct (module, property) pair.
+ * <p>
+ * Property values are parsed into {@link PropertyExpression}s once per distinct value, which allows interpolating
+ * composite values like "${version.major}.${version.minor}.Final".
+ * <p>
+ * The models are not expected to change while the table is in use. The table can be used concurrently.
+ */
+class PropertyResolutionTable {
+
+    private final MavenProject mavenProject;
+    // keyed by module instances, Project#hashCode() relies on the module coordinates
+    private final Map<Project, Map<String, Optional<PropertyRef>>> moduleProperties =
+            Collections.synchronizedMap(new IdentityHashMap<>());
+    private final Map<String, Optional<ExternalProperty>> externalProperties = new ConcurrentHashMap<>();
+    private final Map<Project, Map<String, Optional<String>>> moduleValues =
+            Collections.synchronizedMap(new IdentityHashMap<>());
+    private final Map<String, PropertyExpression> expressions = new ConcurrentHashMap<>();
+
+    /**
+     * @param mavenProject project whose parents are searched for external properties
+     */
+    PropertyResolutionTable(MavenProject mavenProject) {
+        this.mavenProject = mavenProject;
+    }
+
+    /**
+     * @see UpgradeComponentsMojo#followProperties(Project, String)
+     */
+    PropertyRef followProperties(Project pmeProject, String propertyName) {
+        return moduleProperties.computeIfAbsent(pmeProject, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(propertyName,
+                        key -> Optional.ofNullable(UpgradeComponentsMojo.followProperties(pmeProject, propertyName)))
+                .orElse(null);
+    }
+
+    /**
+     * @see UpgradeComponentsMojo#resolveExternalProperty(MavenProject, String)
+     */
+    ExternalProperty resolveExternalProperty(String propertyName) {
+        return externalProperties.computeIfAbsent(propertyName,
+                key -> Optional.ofNullable(UpgradeComponentsMojo.resolveExternalProperty(mavenProject, propertyName)))
+                .orElse(null);
+    }
+
+    /**
+     * Interpolates a value, e.g. a dependency version, in the context of given module.
+     * <p>
+     * Property references are resolved from the module and its parent modules first, then from the external parents
+     * of the project. As in Maven, the references inside of a property value defined in a parent module are resolved
+     * in the context of given module, so that the module can override them.
+     *
+     * @return the interpolated value, or null if some of the referenced properties can't be resolved, or the
+     *  references form a loop
+     */
+    String interpolate(Project pmeProject, String value) {
+        PropertyExpression expression = parse(value);
+        if (expression.isLiteral()) {
+            return value;
+        }
+        return expression.evaluate(name -> resolvePropertyValue(pmeProject, name, new HashSet<>()));
+    }
+
+    private String resolvePropertyValue(Project pmeProject, String propertyName, Set<String> chain) {
+        Map<String, Optional<String>> values = moduleValues.computeIfAbsent(pmeProject,
+                key -> new ConcurrentHashMap<>());
+        // can't use computeIfAbsent(), the computation recurses into the same map
+        Optional<String> value = values.get(propertyName);
+        if (value == null) {
+            if (!chain.add(propertyName)) {
+                // the property references itself
+                return null;
+            }
+            String rawValue = lookupRawValue(pmeProject, propertyName);
+            String resolved = rawValue == null ? null
+                    : parse(rawValue).evaluate(name -> resolvePropertyValue(pmeProject, name, chain));
+            chain.remove(propertyName);
+            value = Optional.ofNullable(resolved);
+            values.putIfAbsent(propertyName, value);
+        }
+        return value.orElse(null);
+    }
+
+    private String lookupRawValue(Project pmeProject, String propertyName) {
+        for (Project module = pmeProject; module != null; module = module.getProjectParent()) {
+            Properties properties = module.getModel().getProperties();
+            if (properties.containsKey(propertyName)) {
+                return properties.getProperty(propertyName);
+            }
+        }
+        for (MavenProject project = mavenProject; project != null; project = project.getParent()) {
+            Properties properties = project.getModel().getProperties();
+            if (properties.containsKey(propertyName)) {
+                return properties.getProperty(propertyName);
+            }
+        }
+        return null;
+    }
+
+    private PropertyExpression parse(String value) {
+        return expressions.computeIfAbsent(value, PropertyExpression::parse);
+    }
+}
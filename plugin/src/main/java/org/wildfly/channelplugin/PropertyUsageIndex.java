@@ -0,0 +1,99 @@
+package org.wildfly.channelplugin;
+
+import org.apache.maven.model.Dependency;
+import org.commonjava.maven.ext.common.model.Project;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reverse index from version properties to the dependencies whose versions they control, collected across the whole
+ * reactor before any of the properties is upgraded.
+ * <p>
+ * When the channel resolves different versions for dependencies sharing a property, the property takes the version
+ * of its primary usage, which is the first usage recorded in the reactor order. Versions of the conflicting usages
+ * have to be overridden inline.
+ */
+class PropertyUsageIndex {
+
+    private final Map<PropertyRef, List<Usage>> usages = new LinkedHashMap<>();
+
+    void add(PropertyRef property, Project module, Dependency dependency, String originalVersion,
+             String channelVersion) {
+        usages.computeIfAbsent(property, key -> new ArrayList<>())
+                .add(new Usage(module, dependency, originalVersion, channelVersion));
+    }
+
+    /**
+     * @return indexed properties, in the order of their first usage
+     */
+    Set<PropertyRef> getProperties() {
+        return Collections.unmodifiableSet(usages.keySet());
+    }
+
+    /**
+     * @return all usages of given property, in the order they were recorded
+     */
+    List<Usage> getUsages(PropertyRef property) {
+        return Collections.unmodifiableList(usages.getOrDefault(property, Collections.emptyList()));
+    }
+
+    /**
+     * @return the usage that decides the version of given property, or null if the property is not indexed
+     */
+    Usage getPrimaryUsage(PropertyRef property) {
+        List<Usage> propertyUsages = usages.get(property);
+        return propertyUsages == null ? null : propertyUsages.get(0);
+    }
+
+    /**
+     * @return usages of given property whose channel version differs from the channel version of the primary usage
+     */
+    List<Usage> getConflictingUsages(PropertyRef property) {
+        Usage primaryUsage = getPrimaryUsage(property);
+        if (primaryUsage == null) {
+            return Collections.emptyList();
+        }
+        return usages.get(property).stream()
+                .filter(usage -> !usage.getChannelVersion().equals(primaryUsage.getChannelVersion()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * A dependency whose version is controlled by a property, together with the version resolved by the channel.
+     */
+    static class Usage {
+        private final Project module;
+        private final Dependency dependency;
+        private final String originalVersion;
+        private final String channelVersion;
+
+        Usage(Project module, Dependency dependency, String originalVersion, String channelVersion) {
+            this.module = module;
+            this.dependency = dependency;
+            this.originalVersion = originalVersion;
+            this.channelVersion = channelVersion;
+        }
+
+        public Project getModule() {
+            return module;
+        }
+
+        public Dependency getDependency() {
+            return dependency;
+        }
+
+        public String getOriginalVersion() {
+            return originalVersion;
+        }
+
+        public String getChannelVersion() {
+            return channelVersion;
+        }
+    }
+}
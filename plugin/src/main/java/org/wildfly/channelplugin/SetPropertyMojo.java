@@ -13,7 +13,6 @@ import org.wildfly.channel.VersionResult;
 import org.wildfly.channelplugin.manipulation.PomManipulator;
 import org.wildfly.channelplugin.utils.PMEUtils;
 
-import javax.xml.stream.XMLStreamException;
 import java.util.List;
 
 /**
@@ -44,12 +43,18 @@ public class SetPropertyMojo extends AbstractChannelMojo {
 
         initChannelSession();
 
-        if (!mavenProject.getModel().getProperties().containsKey(property)) {
-            throw new MojoFailureException(String.format("Property %s is not present in this project's pom.xml.", property));
-        }
+        ProjectRef ga;
+        VersionResult result;
+        try {
+            if (!mavenProject.getModel().getProperties().containsKey(property)) {
+                throw new MojoFailureException(String.format("Property %s is not present in this project's pom.xml.", property));
+            }
 
-        ProjectRef ga = SimpleProjectRef.parse(stream);
-        VersionResult result = channelSession.findLatestMavenArtifactVersion(ga.getGroupId(), ga.getArtifactId(), "pom", null, null);
+            ga = SimpleProjectRef.parse(stream);
+            result = channelSession.findLatestMavenArtifactVersion(ga.getGroupId(), ga.getArtifactId(), "pom", null, null);
+        } finally {
+            closeChannelSession();
+        }
         if (StringUtils.isBlank(result.getVersion())) {
             throw new MojoFailureException(String.format("Given channels contain no version for %s:%s.", ga.getGroupId(), ga.getArtifactId()));
         }
@@ -62,8 +67,6 @@ public class SetPropertyMojo extends AbstractChannelMojo {
             manipulator.writePom();
         } catch (ManipulationException e) {
             throw new MojoExecutionException("Project parsing failed", e);
-        } catch (XMLStreamException e) {
-            throw new MojoExecutionException("Failed to override the version property.", e);
         }
     }
 }
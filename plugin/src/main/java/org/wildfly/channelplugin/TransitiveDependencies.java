@@ -0,0 +1,89 @@
+package org.wildfly.channelplugin;
+
+import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.wildfly.channelplugin.utils.VersionComparator;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Collects transitive dependencies discovered in the project, together with their exclusions.
+ * <p>
+ * Only the highest version of an artifact is kept for each groupId, artifactId and classifier combination. The
+ * artifacts are indexed by these coordinates, so that adding an artifact doesn't require scanning of the previously
+ * collected ones, and are kept ordered by their coordinates.
+ */
+class TransitiveDependencies {
+
+    private static final Comparator<String> VERSION_COMPARATOR = new VersionComparator();
+    private static final Comparator<ArtifactRef> ARTIFACT_ORDER = ((Comparator<ArtifactRef>) ProjectRef::compareTo)
+            .thenComparing(ArtifactRef::getClassifier, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(ArtifactRef::getType, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final Map<ClassifiedProjectRef, ArtifactRef> index = new HashMap<>();
+    private final NavigableMap<ArtifactRef, Collection<ProjectRef>> artifacts = new TreeMap<>(ARTIFACT_ORDER);
+
+    /**
+     * Adds an artifact. If an artifact with the same G:A:C exists but with a lower version, it will be replaced.
+     *
+     * @param artifact the artifact to add or update
+     * @param exclusions the exclusions for this artifact
+     */
+    void addOrUpdate(ArtifactRef artifact, Collection<ProjectRef> exclusions) {
+        ClassifiedProjectRef key = new ClassifiedProjectRef(artifact);
+        ArtifactRef previous = index.get(key);
+        if (previous == null
+                || VERSION_COMPARATOR.compare(artifact.getVersionString(), previous.getVersionString()) > 0) {
+            // No previous artifact was recorded, or the current artifact version is higher than the one
+            // recorded previously -> replace
+            if (previous != null) {
+                artifacts.remove(previous);
+            }
+            index.put(key, artifact);
+            artifacts.put(artifact, exclusions);
+        }
+    }
+
+    /**
+     * @return collected artifacts and their exclusions, ordered by the artifact coordinates
+     */
+    Map<ArtifactRef, Collection<ProjectRef>> getArtifacts() {
+        return Collections.unmodifiableMap(artifacts);
+    }
+
+    /**
+     * GroupId, artifactId and classifier of an artifact.
+     */
+    private static final class ClassifiedProjectRef {
+        private final String groupId;
+        private final String artifactId;
+        private final String classifier;
+
+        private ClassifiedProjectRef(ArtifactRef artifact) {
+            this.groupId = artifact.getGroupId();
+            this.artifactId = artifact.getArtifactId();
+            this.classifier = artifact.getClassifier();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ClassifiedProjectRef that = (ClassifiedProjectRef) o;
+            return groupId.equals(that.groupId) && artifactId.equals(that.artifactId)
+                    && Objects.equals(classifier, that.classifier);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(groupId, artifactId, classifier);
+        }
+    }
+}
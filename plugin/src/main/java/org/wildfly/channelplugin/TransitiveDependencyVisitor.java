@@ -0,0 +1,74 @@
+package org.wildfly.channelplugin;
+
+import org.apache.maven.RepositoryUtils;
+import org.apache.maven.artifact.Artifact;
+import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.eclipse.aether.graph.DependencyNode;
+import org.eclipse.aether.graph.DependencyVisitor;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiPredicate;
+
+import static org.wildfly.channeltools.util.ConversionUtils.toArtifactRef;
+
+/**
+ * Visits a module dependency graph and collects the nodes that are candidates for transitive dependency injection.
+ * <p>
+ * The nodes are filtered and deduplicated during the traversal, so only the distinct accepted nodes are retained, not
+ * the whole graph.
+ */
+class TransitiveDependencyVisitor implements DependencyVisitor {
+
+    private final BiPredicate<ArtifactRef, String> subtreeFilter;
+    private final BiPredicate<ArtifactRef, String> filter;
+    private final Map<ProjectRef, Set<ProjectRef>> exclusions;
+    private final Set<DependencyNodeRef> nodes = new LinkedHashSet<>();
+
+    /**
+     * @param subtreeFilter decides whether an artifact in given scope and its dependencies should be visited
+     * @param filter decides whether a visited artifact in given scope should be collected
+     * @param exclusions exclusions that apply to artifacts in the module, the sets are shared by the collected nodes
+     */
+    TransitiveDependencyVisitor(BiPredicate<ArtifactRef, String> subtreeFilter, BiPredicate<ArtifactRef, String> filter,
+                                Map<ProjectRef, Set<ProjectRef>> exclusions) {
+        this.subtreeFilter = subtreeFilter;
+        this.filter = filter;
+        this.exclusions = exclusions;
+    }
+
+    @Override
+    public boolean visitEnter(DependencyNode node) {
+        if (node.getDependency() == null) {
+            // root of the graph, the module itself
+            return true;
+        }
+        Artifact mavenArtifact = RepositoryUtils.toArtifact(node.getArtifact());
+        ArtifactRef artifact = toArtifactRef(mavenArtifact);
+        String scope = node.getDependency().getScope();
+        if (!subtreeFilter.test(artifact, scope)) {
+            return false;
+        }
+        if (filter.test(artifact, scope)) {
+            nodes.add(new DependencyNodeRef(artifact, scope,
+                    exclusions.getOrDefault(artifact.asProjectRef(), Collections.emptySet())));
+        }
+        return true;
+    }
+
+    @Override
+    public boolean visitLeave(DependencyNode node) {
+        return true;
+    }
+
+    /**
+     * @return accepted nodes, in the order in which they were visited
+     */
+    Collection<DependencyNodeRef> getNodes() {
+        return nodes;
+    }
+}
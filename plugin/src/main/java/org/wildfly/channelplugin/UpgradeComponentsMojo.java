@@ -1,16 +1,11 @@
 package org.wildfly.channelplugin;
 
+import org.apache.maven.RepositoryUtils;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
-import org.apache.maven.project.DefaultProjectBuildingRequest;
 import org.apache.maven.project.MavenProject;
-import org.apache.maven.project.ProjectBuildingRequest;
-import org.apache.maven.shared.dependency.graph.DependencyGraphBuilder;
-import org.apache.maven.shared.dependency.graph.DependencyGraphBuilderException;
-import org.apache.maven.shared.dependency.graph.DependencyNode;
-import org.apache.maven.shared.dependency.graph.traversal.CollectingDependencyNodeVisitor;
 import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
@@ -20,29 +15,43 @@ import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.core.ManipulationSession;
-import org.wildfly.channel.NoStreamFoundException;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.ArtifactTypeRegistry;
+import org.eclipse.aether.collection.CollectRequest;
+import org.eclipse.aether.collection.DependencyCollectionException;
+import org.eclipse.aether.graph.DependencyNode;
 import org.wildfly.channel.Repository;
 import org.wildfly.channel.UnresolvedMavenArtifactException;
 import org.wildfly.channel.VersionResult;
 import org.wildfly.channelplugin.manipulation.PomManipulator;
+import org.wildfly.channelplugin.utils.ConcurrencyUtils;
 import org.wildfly.channelplugin.utils.PMEUtils;
+import org.wildfly.channelplugin.utils.ProjectRefMatcher;
+import org.wildfly.channelplugin.utils.PropertyNameMatcher;
 import org.wildfly.channelplugin.utils.VersionComparator;
 import org.wildfly.channeltools.util.VersionUtils;
 
 import javax.inject.Inject;
-import javax.xml.stream.XMLStreamException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static org.wildfly.channeltools.util.ConversionUtils.toArtifactRef;
@@ -60,9 +69,11 @@ import static org.wildfly.channeltools.util.ConversionUtils.toProjectRefs;
 public class UpgradeComponentsMojo extends AbstractChannelMojo {
 
     private final static Comparator<String> VERSION_COMPARATOR = new VersionComparator();
+    private final static int POM_WRITER_THREADS = 4;
 
     /**
-     * Comma separated list of dependency G:As that should not be upgraded.
+     * Comma separated list of dependency G:As that should not be upgraded. A "*" matches any sequence of characters,
+     * e.g. "org.wildfly.core:*". Malformed entries are reported as errors and skipped.
      */
     @Parameter(property = "ignoreStreams")
     List<String> ignoreStreams;
@@ -70,13 +81,14 @@ public class UpgradeComponentsMojo extends AbstractChannelMojo {
     /**
      * Takes precedence over the ignoreStreams settings. One can use it to set "-DignoreStreams=org.wildfly.core:*" and
      * "-DdontIgnoreStreams=org.wildfly.core:wildfly-core-parent" which would together ignore all org.wildfly.core:*
-     * streams except for org.wildfly.core:wildfly-core-parent.
+     * streams except for org.wildfly.core:wildfly-core-parent. Malformed entries are reported as errors and skipped.
      */
     @Parameter(property = "dontIgnoreStreams")
     List<String> dontIgnoreStreams;
 
     /**
-     * Comma separated list of module G:As that should not be processed.
+     * Comma separated list of module G:As that should not be processed. A "*" matches any sequence of characters.
+     * Malformed entries are reported as errors and skipped.
      */
     @Parameter(property = "ignoreModules")
     List<String> ignoreModules;
@@ -97,6 +109,7 @@ public class UpgradeComponentsMojo extends AbstractChannelMojo {
 
     /**
      * Comma separated list of propertyName=propertyValue. Given properties will be overridden to given values.
+     * Malformed entries are reported as errors and skipped.
      * <p>
      * This setting takes precedence over channel streams.
      */
@@ -105,7 +118,7 @@ public class UpgradeComponentsMojo extends AbstractChannelMojo {
 
     /**
      * Comma separated list of groupId:artifactId:version triplets. All existing dependencies in the project with given
-     * groupId and artifactId will be set to given version.
+     * groupId and artifactId will be set to given version. Malformed entries are reported as errors and skipped.
      * <p>
      * This setting takes precedence over channel streams.
      */
@@ -150,21 +163,38 @@ public class UpgradeComponentsMojo extends AbstractChannelMojo {
     @Parameter(property = "doNotDowngrade", defaultValue = "false")
     boolean doNotDowngrade;
 
-    @Inject
-    DependencyGraphBuilder dependencyGraphBuilder;
+    /**
+     * Maximum number of dependency versions that are resolved from channels concurrently.
+     */
+    @Parameter(property = "resolutionThreads", defaultValue = "8")
+    int resolutionThreads;
+
+    /**
+     * Maximum number of project modules that are prepared concurrently (resolving of module dependencies, reading of
+     * POM files and building of dependency graphs). The upgrades are still decided module by module in the reactor
+     * order, so the result is the same as with a single thread.
+     */
+    @Parameter(property = "moduleThreads", defaultValue = "1")
+    int moduleThreads;
 
     @Inject
     ManipulationSession manipulationSession;
 
-    private final Set<ProjectRef> ignoredStreams = new HashSet<>();
-    private final Set<ProjectRef> unignoredStreams = new HashSet<>();
+    // compiled forms of the ignore* and override* parameters
+    private ProjectRefMatcher ignoredStreams;
+    private ProjectRefMatcher unignoredStreams;
+    private ProjectRefMatcher ignoredModules;
+    private PropertyNameMatcher ignoredProperties;
+    private final Map<String, String> propertyOverrides = new LinkedHashMap<>();
+    private final Map<String, Map<String, String>> dependencyOverrides = new HashMap<>(); // groupId -> artifactId -> version
     private Set<ProjectVersionRef> projectGavs;
     private final Map<ProjectRef, PomManipulator> manipulators = new HashMap<>();
     private PomManipulator rootManipulator;
-    private final Map<PropertyRef, String> lockedProperties = new HashMap<>();
     private final Set<ProjectRef> declaredDependencies = new HashSet<>();
     private final Set<String> overriddenProperties = new HashSet<>(); // Names of properties that were explicitly overridden via `overrideProperties` parameter.
     private final Set<Dependency> overriddenDependencies = new HashSet<>(); // Collected dependency instances that were explicitly overridden via `overrideDependencies` parameter.
+    private final Map<ArtifactRef, Optional<String>> channelVersions = new ConcurrentHashMap<>(); // Prefetched channel versions of declared dependencies.
+    private PropertyResolutionTable propertyResolutionTable;
     private boolean allModulesProcessed = false;
 
     /**
@@ -174,8 +204,41 @@ public class UpgradeComponentsMojo extends AbstractChannelMojo {
         MojoConfigurator.applyExternalConfiguration(this, mavenSession); // Keep this as the first step.
         initChannelSession();
 
-        ignoreStreams.forEach(ga -> ignoredStreams.add(SimpleProjectRef.parse(ga)));
-        dontIgnoreStreams.forEach(ga -> unignoredStreams.add(SimpleProjectRef.parse(ga)));
+        // malformed entries of the ignore* and override* parameters are reported and skipped
+        ignoredStreams = ProjectRefMatcher.compile(ignoreStreams, invalidEntryReporter("ignoreStreams"));
+        unignoredStreams = ProjectRefMatcher.compile(dontIgnoreStreams, invalidEntryReporter("dontIgnoreStreams"));
+        // ":artifactId" refers to a module with the groupId of the root project
+        ignoredModules = ProjectRefMatcher.compile(ignoreModules == null ? null : ignoreModules.stream()
+                .map(ga -> ga.startsWith(":") ? mavenProject.getGroupId() + ga : ga)
+                .collect(Collectors.toList()), invalidEntryReporter("ignoreModules"));
+        ignoredProperties = PropertyNameMatcher.compile(ignoreProperties, ignorePropertiesPrefixedWith);
+        if (overrideProperties != null) {
+            for (String nameValue: overrideProperties) {
+                String[] split = nameValue.split("=");
+                if (split.length != 2) {
+                    getLog().error(String.format("Can't interpret property to override settings: '%s'", nameValue));
+                    continue;
+                }
+                propertyOverrides.put(split[0], split[1]);
+            }
+        }
+        if (overrideDependencies != null) {
+            for (String gav: overrideDependencies) {
+                String[] split = gav.split(":");
+                if (split.length != 3) {
+                    getLog().error(String.format("Can't interpret dependency to override settings: '%s'", gav));
+                    continue;
+                }
+                // the first occurrence of a G:A wins
+                dependencyOverrides.computeIfAbsent(split[0], g -> new HashMap<>()).putIfAbsent(split[1], split[2]);
+            }
+        }
+        propertyResolutionTable = new PropertyResolutionTable(mavenProject);
+    }
+
+    private Consumer<String> invalidEntryReporter(String parameterName) {
+        return entry -> getLog().error(String.format("Can't interpret %s entry, expected groupId:artifactId: '%s'",
+                parameterName, entry));
     }
 
     @Override
@@ -195,21 +258,48 @@ public class UpgradeComponentsMojo extends AbstractChannelMojo {
                     .map(p -> new SimpleProjectVersionRef(p.getGroupId(), p.getArtifactId(), p.getVersion()))
                     .collect(Collectors.toSet());
 
-            // process project modules
+            // collect dependencies of all project modules
+            List<Project> modules = new ArrayList<>();
             for (Project project: pmeProjects) {
                 if (isIgnoredModule(project.getGroupId(), project.getArtifactId())) {
                     getLog().info(String.format("Skipping module %s:%s", project.getGroupId(), project.getArtifactId()));
                     continue;
                 }
+                modules.add(project);
+            }
+            Map<Project, Map<ArtifactRef, Dependency>> moduleDependencies = collectModuleDependencies(modules);
 
-                getLog().info(String.format("Processing module %s:%s", project.getGroupId(), project.getArtifactId()));
+            // resolve channel versions of all collected dependencies up front
+            prefetchChannelVersions(moduleDependencies.values());
+
+            // create manipulators for all modules, the POM files are only read once the manipulators are used
+            for (Project project: modules) {
+                manipulators.put(new SimpleProjectRef(project.getGroupId(), project.getArtifactId()),
+                        new PomManipulator(project));
+            }
+            if (moduleThreads > 1) {
+                loadManipulators(moduleDependencies);
+            }
+
+            // perform the hard overrides first, so that all modules see the same set of overridden properties
+            for (Map.Entry<Project, Map<ArtifactRef, Dependency>> entry: moduleDependencies.entrySet()) {
+                Project project = entry.getKey();
+                PomManipulator manipulator = manipulators.get(
+                        new SimpleProjectRef(project.getGroupId(), project.getArtifactId()));
+                performHardOverrides(manipulator, entry.getValue());
+            }
 
-                // create manipulator for given module
-                PomManipulator manipulator = new PomManipulator(project);
-                manipulators.put(new SimpleProjectRef(project.getGroupId(), project.getArtifactId()), manipulator);
+            // process project modules, version properties are only indexed at this point
+            PropertyUsageIndex propertyUsages = new PropertyUsageIndex();
+            for (Map.Entry<Project, Map<ArtifactRef, Dependency>> entry: moduleDependencies.entrySet()) {
+                Project project = entry.getKey();
+                getLog().info(String.format("Processing module %s:%s", project.getGroupId(), project.getArtifactId()));
 
-                processModule(project, manipulator);
+                PomManipulator manipulator = manipulators.get(
+                        new SimpleProjectRef(project.getGroupId(), project.getArtifactId()));
+                processDependencies(manipulator, project, entry.getValue(), propertyUsages);
             }
+            upgradeVersionProperties(propertyUsages);
             allModulesProcessed = true;
 
             Project rootProject = PMEUtils.findRootProject(pmeProjects);
@@ -227,40 +317,134 @@ public class UpgradeComponentsMojo extends AbstractChannelMojo {
             }
 
             // override modified poms
-            for (PomManipulator manipulator: manipulators.values()) {
-                manipulator.writePom();
-            }
+            writePoms(manipulators.values());
 
-        } catch (ManipulationException | XMLStreamException e) {
+        } catch (ManipulationException e) {
             throw new MojoExecutionException("Project parsing failed", e);
+        } finally {
+            closeChannelSession();
+        }
+    }
+
+    /**
+     * Resolves dependencies of given modules concurrently.
+     *
+     * @param modules project modules to process
+     * @return resolved dependencies of individual modules, in the order of given modules
+     */
+    private Map<Project, Map<ArtifactRef, Dependency>> collectModuleDependencies(List<Project> modules)
+            throws MojoExecutionException {
+        ExecutorService executor = ConcurrencyUtils.newBoundedExecutor(moduleThreads);
+        try {
+            List<Future<Map<ArtifactRef, Dependency>>> futures = new ArrayList<>();
+            for (Project project: modules) {
+                futures.add(executor.submit(() -> collectResolvedProjectDependencies(project)));
+            }
+            Map<Project, Map<ArtifactRef, Dependency>> moduleDependencies = new LinkedHashMap<>();
+            for (int i = 0; i < modules.size(); i++) {
+                moduleDependencies.put(modules.get(i), futures.get(i).get());
+            }
+            return moduleDependencies;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while resolving module dependencies", e);
+        } catch (ExecutionException e) {
+            throw new MojoExecutionException("Project parsing failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
         }
     }
 
     /**
-     * Processes single project module:
+     * Reads POM files of the modules that are likely to be edited concurrently, so that the serial processing of
+     * the modules doesn't have to wait for them one at a time.
+     *
+     * @param moduleDependencies resolved dependencies of individual project modules
+     */
+    private void loadManipulators(Map<Project, Map<ArtifactRef, Dependency>> moduleDependencies)
+            throws MojoExecutionException {
+        ExecutorService executor = ConcurrencyUtils.newBoundedExecutor(moduleThreads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Map.Entry<Project, Map<ArtifactRef, Dependency>> entry: moduleDependencies.entrySet()) {
+                boolean upgradable = entry.getValue().keySet().stream()
+                        .anyMatch(artifact -> channelVersions.getOrDefault(artifact, Optional.empty()).isPresent());
+                if (upgradable) {
+                    Project project = entry.getKey();
+                    PomManipulator manipulator = manipulators.get(
+                            new SimpleProjectRef(project.getGroupId(), project.getArtifactId()));
+                    futures.add(executor.submit(manipulator::load));
+                }
+            }
+            for (Future<?> future: futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while reading POM files", e);
+        } catch (ExecutionException e) {
+            throw new MojoExecutionException("Failed to read POM files", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Writes the POM files of given manipulators concurrently. Files without changes are not rewritten.
+     */
+    private void writePoms(Collection<PomManipulator> pomManipulators) throws MojoExecutionException {
+        ExecutorService executor = ConcurrencyUtils.newBoundedExecutor(POM_WRITER_THREADS);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (PomManipulator manipulator: pomManipulators) {
+                futures.add(executor.submit(manipulator::writePom));
+            }
+            int written = 0;
+            for (Future<Boolean> future: futures) {
+                if (future.get()) {
+                    written++;
+                }
+            }
+            getLog().info(String.format("POM files updated: %d, unchanged (not rewritten): %d",
+                    written, futures.size() - written));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while writing POM files", e);
+        } catch (ExecutionException e) {
+            throw new MojoExecutionException("Failed to write POM files", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Prepares single project module:
      * <li>collects all declared dependencies,</li>
-     * <li>performs hard overrides of properties and dependency versions in the module,</li>
-     * <li>upgrades dependencies according to channel definition.</li>
+     * <li>performs hard overrides of properties and dependency versions in the module.</li>
      */
-    private void processModule(Project pmeProject, PomManipulator manipulator)
-            throws ManipulationException, XMLStreamException {
-        Map<ArtifactRef, Dependency> resolvedProjectDependencies = collectResolvedProjectDependencies(pmeProject);
+    private void performHardOverrides(PomManipulator manipulator,
+                                      Map<ArtifactRef, Dependency> resolvedProjectDependencies) {
         resolvedProjectDependencies.keySet().forEach(a -> declaredDependencies.add(a.asProjectRef()));
 
         performHardPropertyOverrides(manipulator);
         performHardDependencyOverrides(resolvedProjectDependencies, manipulator);
-        processDependencies(manipulator, pmeProject, resolvedProjectDependencies);
     }
 
+    /**
+     * Upgrades dependencies of single project module according to channel definition. Dependencies with versions
+     * controlled by properties are only recorded in the property usage index, the properties are upgraded once all
+     * modules are processed.
+     */
     private void processDependencies(PomManipulator manipulator, Project pmeProject,
-                                     Map<ArtifactRef, Dependency> resolvedProjectDependencies)
-            throws XMLStreamException {
+                                     Map<ArtifactRef, Dependency> resolvedProjectDependencies,
+                                     PropertyUsageIndex propertyUsages) {
 
         for (Map.Entry<ArtifactRef, Dependency> entry: resolvedProjectDependencies.entrySet()) {
             Dependency dependency = entry.getValue();
             ArtifactRef originalArtifact = entry.getKey();
             String originalVersion = originalArtifact.getVersionString().trim();
-            Optional<String> channelVersionOpt = resolveDependencyVersionFromChannel(originalArtifact);
+            Optional<String> channelVersionOpt = channelVersions.computeIfAbsent(originalArtifact,
+                    this::resolveDependencyVersionFromChannel);
             if (channelVersionOpt.isEmpty()) {
                 // Channel doesn't resolve this, nothing to do
                 continue;
@@ -276,7 +460,8 @@ public class UpgradeComponentsMojo extends AbstractChannelMojo {
 
             if (VersionUtils.isProperty(dependency.getVersion()) && !inlineUpgradedVersions) {
                 // Dependency version is set from a property
-                processDependencyWithVersionProperty(pmeProject, manipulator, dependency, originalVersion, channelVersion);
+                indexDependencyWithVersionProperty(pmeProject, dependency, originalVersion, channelVersion,
+                        propertyUsages);
             } else {
                 // Dependency version is to be written directly into the version element
                 if (shouldUpgrade(originalVersion, channelVersion)) {
@@ -286,10 +471,9 @@ public class UpgradeComponentsMojo extends AbstractChannelMojo {
         }
     }
 
-    private void processDependencyWithVersionProperty(Project pmeProject, PomManipulator manipulator, Dependency dependency,
-                                                      String originalVersion, String newVersion) throws XMLStreamException {
-        String originalVersionString = dependency.getVersion();
-        String versionPropertyName = VersionUtils.extractPropertyName(originalVersionString);
+    private void indexDependencyWithVersionProperty(Project pmeProject, Dependency dependency, String originalVersion,
+                                                    String newVersion, PropertyUsageIndex propertyUsages) {
+        String versionPropertyName = VersionUtils.extractPropertyName(dependency.getVersion());
 
         /*if (overriddenProperties.contains(versionPropertyName)) {
             // this property has been overridden based on `overrideProperties` parameter, do not process again
@@ -313,23 +497,34 @@ public class UpgradeComponentsMojo extends AbstractChannelMojo {
             return;
         }
 
-        if (!lockedProperties.containsKey(mavenPropertyRef)) {
-            lockedProperties.put(mavenPropertyRef, newVersion);
-            if (shouldUpgrade(originalVersion, newVersion)) {
+        propertyUsages.add(mavenPropertyRef, pmeProject, dependency, originalVersion, newVersion);
+    }
+
+    /**
+     * Upgrades the indexed version properties. Each property is set to the channel version of its primary usage,
+     * the conflicting usages are overridden inline.
+     */
+    private void upgradeVersionProperties(PropertyUsageIndex propertyUsages) {
+        for (PropertyRef mavenPropertyRef: propertyUsages.getProperties()) {
+            PropertyUsageIndex.Usage primaryUsage = propertyUsages.getPrimaryUsage(mavenPropertyRef);
+            if (shouldUpgrade(primaryUsage.getOriginalVersion(), primaryUsage.getChannelVersion())) {
                 // overwrite property
-                updateVersionProperty(pmeProject, dependency, mavenPropertyRef, newVersion);
+                updateVersionProperty(primaryUsage.getModule(), primaryUsage.getDependency(), mavenPropertyRef,
+                        primaryUsage.getChannelVersion());
             }
-        } else {
-            if (!newVersion.equals(lockedProperties.get(mavenPropertyRef))) {
+
+            for (PropertyUsageIndex.Usage usage: propertyUsages.getConflictingUsages(mavenPropertyRef)) {
                 // overwrite dependency version inline
-                manipulator.overrideDependencyVersion(dependency.getGroupId(), dependency.getArtifactId(),
-                        originalVersionString, newVersion);
+                Project module = usage.getModule();
+                Dependency dependency = usage.getDependency();
+                manipulators.get(new SimpleProjectRef(module.getGroupId(), module.getArtifactId()))
+                        .overrideDependencyVersion(dependency.getGroupId(), dependency.getArtifactId(),
+                                dependency.getVersion(), usage.getChannelVersion());
             }
         }
     }
 
-    private void updateVersionProperty(Project pmeProject, Dependency dependency, PropertyRef mavenPropertyRef, String newVersion)
-            throws XMLStreamException {
+    private void updateVersionProperty(Project pmeProject, Dependency dependency, PropertyRef mavenPropertyRef, String newVersion) {
         Project targetProject = mavenPropertyRef.getModule();
         String targetPropertyName = mavenPropertyRef.getPropertyName();
 
@@ -361,9 +556,9 @@ public class UpgradeComponentsMojo extends AbstractChannelMojo {
      * @return property reference
      */
     private PropertyRef lookupMavenProperty(Project pmeProject, String propertyName) {
-        PropertyRef mavenPropertyRef = followProperties(pmeProject, propertyName);
+        PropertyRef mavenPropertyRef = propertyResolutionTable.followProperties(pmeProject, propertyName);
         if (mavenPropertyRef == null) {
-            ExternalProperty externalProperty = resolveExternalProperty(mavenProject, propertyName);
+            ExternalProperty externalProperty = propertyResolutionTable.resolveExternalProperty(propertyName);
             if (externalProperty != null) {
                 mavenPropertyRef = new PropertyRef(null, externalProperty.getName());
             }
@@ -376,15 +571,10 @@ public class UpgradeComponentsMojo extends AbstractChannelMojo {
      *
      * @param manipulator manipulator for current module
      */
-    private void performHardPropertyOverrides(PomManipulator manipulator) throws XMLStreamException {
-        for (String nameValue: overrideProperties) {
-            String[] split = nameValue.split("=");
-            if (split.length != 2) {
-                getLog().error(String.format("Can't interpret property to override settings: '%s'", nameValue));
-                continue;
-            }
-            String propertyName = split[0];
-            String propertyValue = split[1];
+    private void performHardPropertyOverrides(PomManipulator manipulator) {
+        for (Map.Entry<String, String> entry: propertyOverrides.entrySet()) {
+            String propertyName = entry.getKey();
+            String propertyValue = entry.getValue();
             if (manipulator.overrideProperty(propertyName, propertyValue)) {
                 getLog().info(String.format("Property '%s' overridden to '%s'", propertyName, propertyValue));
                 overriddenProperties.add(propertyName);
@@ -400,35 +590,23 @@ public class UpgradeComponentsMojo extends AbstractChannelMojo {
      * @param manipulator manipulator for current module
      */
     private void performHardDependencyOverrides(Map<ArtifactRef, Dependency> resolvedProjectDependencies,
-            PomManipulator manipulator) throws XMLStreamException {
+            PomManipulator manipulator) {
         for (Dependency dependency: resolvedProjectDependencies.values()) {
-            Optional<String> overriddenVersion = findOverriddenVersion(dependency);
-            if (overriddenVersion.isPresent()) {
-                manipulator.overrideDependencyVersion(toArtifactRef(dependency), overriddenVersion.get());
+            String overriddenVersion = findOverriddenVersion(dependency);
+            if (overriddenVersion != null) {
+                manipulator.overrideDependencyVersion(toArtifactRef(dependency), overriddenVersion);
                 overriddenDependencies.add(dependency);
             }
         }
     }
 
-    private Optional<String> findOverriddenVersion(Dependency dependency) {
-        for (String gav: overrideDependencies) {
-            String[] split = gav.split(":");
-            if (split.length != 3) {
-                continue;
-            }
-            String g = split[0];
-            String a = split[1];
-            String v = split[2];
-            if (dependency.getGroupId().equals(g) && dependency.getArtifactId().equals(a)) {
-                return Optional.of(v);
-            }
-        }
-        return Optional.empty();
+    private String findOverriddenVersion(Dependency dependency) {
+        Map<String, String> versions = dependencyOverrides.get(dependency.getGroupId());
+        return versions == null ? null : versions.get(dependency.getArtifactId());
     }
 
     private boolean isIgnoredProperty(String propertyName) {
-        return ignoreProperties.contains(propertyName)
-                || ignorePropertiesPrefixedWith.stream().anyMatch(propertyName::startsWith)
+        return ignoredProperties.matches(propertyName)
                 || overriddenProperties.contains(propertyName);
     }
 
@@ -443,18 +621,17 @@ public class UpgradeComponentsMojo extends AbstractChannelMojo {
             getLog().debug("No dependencies found in " + pmeProject.getArtifactId());
         }
 
-        // If the version was controlled by a property, it should have been resolved into a specific version string
+        // If the version was controlled by properties, it should have been resolved into a specific version string
         // by now.
         // PME doesn't seem to resolve properties defined in parent poms, so now we have a chance to fix that.
-        // If the property could still not be resolved from parent poms, ignore this dependency.
+        // If the properties could still not be resolved from parent poms, ignore this dependency.
         Map<ArtifactRef, Dependency> correctedDependencies = new HashMap<>();
         projectDependencies.forEach((artifact, dependency) -> {
-            if (VersionUtils.isProperty(artifact.getVersionString())) {
-                ExternalProperty externalProperty = resolveExternalProperty(mavenProject,
-                        VersionUtils.extractPropertyName(artifact.getVersionString()));
-                if (externalProperty != null) {
+            if (artifact.getVersionString().contains("${")) {
+                String version = propertyResolutionTable.interpolate(pmeProject, artifact.getVersionString());
+                if (version != null) {
                     SimpleArtifactRef newArtifact = new SimpleArtifactRef(artifact.getGroupId(), artifact.getArtifactId(),
-                            externalProperty.getValue(), artifact.getType(), artifact.getClassifier());
+                            version, artifact.getType(), artifact.getClassifier());
                     correctedDependencies.put(newArtifact, dependency);
                 } else {
                     getLog().warn("Following dependency uses a version property that could not be resolved: " + dependency.toString());
@@ -476,18 +653,11 @@ public class UpgradeComponentsMojo extends AbstractChannelMojo {
         }
 
         // Ignore based on ignoreStreams / dontIgnoreStreams parameters
-        if (!unignoredStreams.contains(artifact.asProjectRef())) {
-            if (ignoredStreams.contains(artifact.asProjectRef())) {
-                getLog().info("Skipping dependency (ignored stream): "
-                        + artifact.asProjectVersionRef().toString());
-                return true;
-            }
-            ProjectRef wildCardIgnoredProjectRef = new SimpleProjectRef(artifact.getGroupId(), "*");
-            if (ignoredStreams.contains(wildCardIgnoredProjectRef)) {
-                getLog().info("Skipping dependency (ignored stream): "
-                        + artifact.asProjectVersionRef().toString());
-                return true;
-            }
+        if (ignoredStreams.matches(artifact.getGroupId(), artifact.getArtifactId())
+                && !unignoredStreams.matches(artifact.getGroupId(), artifact.getArtifactId())) {
+            getLog().info("Skipping dependency (ignored stream): "
+                    + artifact.asProjectVersionRef().toString());
+            return true;
         }
 
         // Ignore based on scope
@@ -512,19 +682,54 @@ public class UpgradeComponentsMojo extends AbstractChannelMojo {
         return false;
     }
 
+    /**
+     * Resolves channel versions of all given dependencies concurrently and stores them in the `channelVersions` map,
+     * so that the module processing doesn't have to wait for the channel lookups one artifact at a time.
+     *
+     * @param moduleDependencies resolved dependencies of individual project modules
+     */
+    private void prefetchChannelVersions(Collection<Map<ArtifactRef, Dependency>> moduleDependencies)
+            throws MojoExecutionException {
+        Set<ArtifactRef> artifacts = moduleDependencies.stream()
+                .flatMap(dependencies -> dependencies.keySet().stream())
+                .filter(artifact -> !channelVersions.containsKey(artifact))
+                .collect(Collectors.toSet());
+        getLog().debug(String.format("Resolving channel versions of %d distinct artifacts", artifacts.size()));
+
+        ExecutorService executor = ConcurrencyUtils.newBoundedExecutor(resolutionThreads);
+        try {
+            Map<ArtifactRef, Future<Optional<String>>> futures = new HashMap<>();
+            for (ArtifactRef artifact: artifacts) {
+                futures.put(artifact, executor.submit(() -> resolveDependencyVersionFromChannel(artifact)));
+            }
+            for (Map.Entry<ArtifactRef, Future<Optional<String>>> entry: futures.entrySet()) {
+                channelVersions.put(entry.getKey(), entry.getValue().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while resolving dependency versions from channels", e);
+        } catch (ExecutionException e) {
+            throw new MojoExecutionException("Failed to resolve dependency versions from channels", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     private Optional<String> resolveDependencyVersionFromChannel(ArtifactRef artifactRef) {
+        Optional<VersionResult> versionResult;
         try {
-            VersionResult versionResult = channelSession.findLatestMavenArtifactVersion(artifactRef.getGroupId(),
+            versionResult = channelSession.findLatestMavenArtifactVersionIfPresent(artifactRef.getGroupId(),
                     artifactRef.getArtifactId(), artifactRef.getType(), artifactRef.getClassifier(),
                     artifactRef.getVersionString());
-            return Optional.of(versionResult.getVersion());
         } catch (UnresolvedMavenArtifactException e) {
-            // This is expected to happen - the artifacts not covered by the channel result in
-            // UnresolvedMavenArtifactException and this doesn't signify a processing error.
+            versionResult = Optional.empty();
+        }
+        if (versionResult.isEmpty()) {
+            // This is expected to happen - the artifacts not covered by the channel don't signify a processing error.
             getLog().debug(String.format("Artifact %s:%s is not resolvable by given channels.",
                     artifactRef.getGroupId(), artifactRef.getArtifactId()));
-            return Optional.empty();
         }
+        return versionResult.map(VersionResult::getVersion);
     }
 
     /**
@@ -538,23 +743,19 @@ public class UpgradeComponentsMojo extends AbstractChannelMojo {
                     " project modules has been processed.");
         }
 
-        Map<ArtifactRef, Collection<ProjectRef>> transitiveDependencies = findTransitiveDependencies();
-        List<Map.Entry<ArtifactRef, Collection<ProjectRef>>> orderedEntries = transitiveDependencies.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .collect(Collectors.toList());
-        for (Map.Entry<ArtifactRef, Collection<ProjectRef>> entry: orderedEntries) {
+        TransitiveDependencies transitiveDependencies = findTransitiveDependencies();
+        for (Map.Entry<ArtifactRef, Collection<ProjectRef>> entry: transitiveDependencies.getArtifacts().entrySet()) {
             ArtifactRef artifact = entry.getKey();
             Collection<ProjectRef> exclusions = entry.getValue();
-            String newVersion;
-            try {
-                // Check if the dependency is updated by the channel.
-                VersionResult versionResult = channelSession.findLatestMavenArtifactVersion(artifact.getGroupId(),
-                        artifact.getArtifactId(), artifact.getType(), artifact.getClassifier(), artifact.getVersionString());
-                newVersion = versionResult.getVersion();
-            } catch (NoStreamFoundException e) {
+            // Check if the dependency is updated by the channel.
+            Optional<VersionResult> versionResult = channelSession.findLatestMavenArtifactVersionIfPresent(
+                    artifact.getGroupId(), artifact.getArtifactId(), artifact.getType(), artifact.getClassifier(),
+                    artifact.getVersionString());
+            if (versionResult.isEmpty()) {
                 // No stream found -> dependency remains the same.
                 continue;
             }
+            String newVersion = versionResult.get().getVersion();
 
             if (shouldUpgrade(artifact.getVersionString(), newVersion)) {
                 SimpleArtifactRef newDependency = new SimpleArtifactRef(artifact.getGroupId(), artifact.getArtifactId(),
@@ -562,11 +763,7 @@ public class UpgradeComponentsMojo extends AbstractChannelMojo {
                 getLog().info(String.format("Injecting undeclared dependency: %s (original version was %s)", newDependency,
                         artifact.getVersionString()));
 
-                try {
-                    rootManipulator.injectManagedDependency(newDependency, exclusions, artifact.getVersionString());
-                } catch (XMLStreamException e) {
-                    throw new MojoExecutionException("Failed to inject a managed dependency", e);
-                }
+                rootManipulator.injectManagedDependency(newDependency, exclusions, artifact.getVersionString());
             }
         }
     }
@@ -574,17 +771,16 @@ public class UpgradeComponentsMojo extends AbstractChannelMojo {
     /**
      * Finds transitive dependencies in all submodules.
      *
-     * @return map (dependency GAV, exclusions)
+     * @return collected transitive dependencies and their exclusions
      * @throws MojoExecutionException when failed to compose a project dependency graph to collect transitive
      *  deps
      */
-    private Map<ArtifactRef, Collection<ProjectRef>> findTransitiveDependencies()
+    private TransitiveDependencies findTransitiveDependencies()
             throws MojoExecutionException {
-        final List<ProjectRef> projectGAs = projectGavs.stream().map(ProjectRef::asProjectRef)
-                .collect(Collectors.toList());
+        final Set<ProjectRef> projectGAs = projectGavs.stream().map(ProjectRef::asProjectRef)
+                .collect(Collectors.toSet());
 
-        // Map of <artifact, list of exclusions>
-        Map<ArtifactRef, Collection<ProjectRef>> transitiveDependencies = new HashMap<>();
+        TransitiveDependencies transitiveDependencies = new TransitiveDependencies();
         ArrayList<MavenProject> projects = new ArrayList<>();
         projects.add(mavenProject);
         List<MavenProject> collectedProjects = mavenProject.getCollectedProjects().stream()
@@ -593,123 +789,147 @@ public class UpgradeComponentsMojo extends AbstractChannelMojo {
         projects.addAll(collectedProjects);
 
         // This performs a traversal of a dependency tree of all submodules in the project. All discovered dependencies
-        // that are not directly declared in the project are considered transitive dependencies.
-        for (MavenProject module: projects) {
-
-            // Collect exclusions from the effective POM
-            Map<ProjectRef, List<ProjectRef>> artifactExclusions = getDependencyExclusions(module);
-
-            ProjectBuildingRequest buildingRequest =
-                    new DefaultProjectBuildingRequest(mavenSession.getProjectBuildingRequest());
-            buildingRequest.setProject(module);
-            DependencyNode rootNode;
-            try {
-                rootNode = dependencyGraphBuilder.buildDependencyGraph(buildingRequest, null);
-            } catch (DependencyGraphBuilderException e) {
-                throw new MojoExecutionException("Failed to compose dependency graph.", e);
-            }
-            CollectingDependencyNodeVisitor visitor = new CollectingDependencyNodeVisitor();
-            rootNode.accept(visitor);
-            visitor.getNodes().forEach(node -> {
-                ArtifactRef artifact = toArtifactRef(node.getArtifact());
-                // Project modules should not be counted into undeclared dependencies.
-                if (projectGAs.contains(artifact.asProjectRef())) {
-                    return;
-                }
-                // Declared project dependencies should not be counted as undeclared.
-                if (declaredDependencies.contains(artifact.asProjectRef())) {
-                    return;
-                }
-                // Ignore specific scopes.
-                if (ignoreScopes.contains(node.getArtifact().getScope())) {
-                    // Ignore test scope undeclared dependencies entirely.
-                    return;
-                }
-                // Check if the dependency channel stream is configured as ignored.
-                boolean isIgnored = ignoredStreams.contains(artifact.asProjectRef())
-                        || ignoredStreams.contains(new SimpleProjectRef(artifact.getGroupId(), "*"));
-                boolean isUnignored = unignoredStreams.contains(artifact.asProjectRef());
-                if (isIgnored && !isUnignored) {
-                    return;
-                }
-
-                List<ProjectRef> exclusions = artifactExclusions.getOrDefault(artifact.asProjectRef(), Collections.emptyList());
-                HashSet<ProjectRef> exclusionsSet = new HashSet<>(exclusions);
-
-                addOrUpdateArtifact(transitiveDependencies, artifact, exclusionsSet);
-            });
+        // that are not directly declared in the project are considered transitive dependencies. The graphs of
+        // individual modules are built and traversed concurrently.
+        List<Collection<DependencyNodeRef>> moduleNodes = collectTransitiveDependencyNodes(projects,
+                (artifact, scope) -> isTransitiveDependencyCandidate(artifact, scope, projectGAs));
+
+        // The modules are merged in the reactor order, same as if the graphs were built one by one.
+        for (Collection<DependencyNodeRef> nodes: moduleNodes) {
+            for (DependencyNodeRef node: nodes) {
+                transitiveDependencies.addOrUpdate(node.getArtifact(), node.getExclusions());
+            }
         }
         return transitiveDependencies;
     }
 
-    /**
-     * Adds or updates an artifact in the unique GA map and transitive dependencies map.
-     * If an artifact with the same G:A:C exists but with a lower version, it will be replaced.
-     *
-     * @param transitiveDependencies map of artifacts to their exclusions
-     * @param artifact the artifact to add or update
-     * @param exclusions the exclusions for this artifact
-     */
-    static void addOrUpdateArtifact(Map<ArtifactRef, Collection<ProjectRef>> transitiveDependencies,
-                                    ArtifactRef artifact,
-                                    Collection<ProjectRef> exclusions) {
-        Optional<ArtifactRef> match = transitiveDependencies.keySet().stream()
-                .filter(ref -> gaAndClassifierMatches(ref, artifact))
-                .findAny();
-
-        if (match.isEmpty()
-                || VERSION_COMPARATOR.compare(artifact.getVersionString(), match.get().getVersionString()) > 0) {
-            // No previous artifact was recorded, or the current artifact version is higher than the one
-            // recorded previously -> replace
-
-            // Remove old version if present
-            match.ifPresent(transitiveDependencies::remove);
-            // Add the new artifact
-            transitiveDependencies.put(artifact, exclusions);
+    private boolean isTransitiveDependencyCandidate(ArtifactRef artifact, String scope, Set<ProjectRef> projectGAs) {
+        ProjectRef projectRef = artifact.asProjectRef();
+        // Project modules should not be counted into undeclared dependencies.
+        if (projectGAs.contains(projectRef)) {
+            return false;
+        }
+        // Declared project dependencies should not be counted as undeclared.
+        if (declaredDependencies.contains(projectRef)) {
+            return false;
+        }
+        // Ignore specific scopes.
+        if (ignoreScopes.contains(scope)) {
+            // Ignore test scope undeclared dependencies entirely.
+            return false;
         }
+        // Check if the dependency channel stream is configured as ignored.
+        return !ignoredStreams.matches(artifact.getGroupId(), artifact.getArtifactId())
+                || unignoredStreams.matches(artifact.getGroupId(), artifact.getArtifactId());
     }
 
     /**
-     * Returns true if both strings are null or equal.
+     * Collects dependency graphs of given modules concurrently and collects their nodes accepted by given filter.
+     *
+     * @param modules maven modules
+     * @param filter decides whether an artifact in given scope should be collected
+     * @return distinct accepted nodes of the dependency graphs of individual modules, in the order of given modules
+     * @throws MojoExecutionException when failed to compose a dependency graph
      */
-    static boolean nullableStringsEqual(String c1, String c2) {
-        return (c1 == null && c2 == null)
-                || (c1 != null && c1.equals(c2));
+    private List<Collection<DependencyNodeRef>> collectTransitiveDependencyNodes(List<MavenProject> modules,
+            BiPredicate<ArtifactRef, String> filter) throws MojoExecutionException {
+        // Subtrees of nodes in the ignored scopes and of project modules that get their own graphs are not traversed.
+        // The ignored scopes are only pruned after the collection, as their dependencies take part in the version
+        // mediation of the whole graph.
+        RepositorySystemSession repositorySession = mavenSession.getProjectBuildingRequest().getRepositorySession();
+        Set<ProjectRef> moduleGAs = modules.stream()
+                .map(m -> new SimpleProjectRef(m.getGroupId(), m.getArtifactId()))
+                .collect(Collectors.toSet());
+        BiPredicate<ArtifactRef, String> subtreeFilter = (artifact, scope) -> !ignoreScopes.contains(scope)
+                && !moduleGAs.contains(artifact.asProjectRef());
+
+        ExecutorService executor = ConcurrencyUtils.newBoundedExecutor(moduleThreads);
+        try {
+            List<Future<Collection<DependencyNodeRef>>> futures = new ArrayList<>();
+            for (MavenProject module: modules) {
+                futures.add(executor.submit(() -> {
+                    DependencyNode rootNode = collectDependencyGraph(module, repositorySession);
+                    // Collect exclusions from the effective POM
+                    TransitiveDependencyVisitor visitor =
+                            new TransitiveDependencyVisitor(subtreeFilter, filter, getDependencyExclusions(module));
+                    rootNode.accept(visitor);
+                    return visitor.getNodes();
+                }));
+            }
+            List<Collection<DependencyNodeRef>> moduleNodes = new ArrayList<>();
+            for (Future<Collection<DependencyNodeRef>> future: futures) {
+                moduleNodes.add(future.get());
+            }
+            return moduleNodes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while composing dependency graphs", e);
+        } catch (ExecutionException e) {
+            throw new MojoExecutionException("Failed to compose dependency graph.", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
     /**
-     * Do groupId, artifactId and classifier match for given artifacts?
+     * Collects the dependency graph of given module, the same way Maven does when resolving project dependencies, but
+     * without resolving the artifacts. Only the artifact descriptors (POMs) are fetched, the artifact files are never
+     * downloaded.
+     *
+     * @param module maven module
+     * @param repositorySession repository session to collect the dependencies with
+     * @return root node of the conflict resolved dependency graph
      */
-    static boolean gaAndClassifierMatches(ArtifactRef r1, ArtifactRef r2) {
-        return r1.getGroupId().equals(r2.getGroupId())
-                && r1.getArtifactId().equals(r2.getArtifactId())
-                && nullableStringsEqual(r1.getClassifier(), r2.getClassifier());
+    private DependencyNode collectDependencyGraph(MavenProject module, RepositorySystemSession repositorySession)
+            throws DependencyCollectionException {
+        ArtifactTypeRegistry stereotypes = repositorySession.getArtifactTypeRegistry();
+        CollectRequest request = new CollectRequest();
+        request.setRootArtifact(RepositoryUtils.toArtifact(module.getArtifact()));
+        request.setRepositories(module.getRemoteProjectRepositories());
+        request.setRequestContext("project");
+        for (Dependency dependency: module.getDependencies()) {
+            request.addDependency(RepositoryUtils.toDependency(dependency, stereotypes));
+        }
+        if (module.getDependencyManagement() != null) {
+            for (Dependency dependency: module.getDependencyManagement().getDependencies()) {
+                request.addManagedDependency(RepositoryUtils.toDependency(dependency, stereotypes));
+            }
+        }
+        return repositorySystem.collectDependencies(repositorySession, request).getRoot();
     }
 
-    private static Map<ProjectRef, List<ProjectRef>> getDependencyExclusions(MavenProject module) {
-        Map<ProjectRef, List<ProjectRef>> artifactExclusions = new HashMap<>();
+    private static Map<ProjectRef, Set<ProjectRef>> getDependencyExclusions(MavenProject module) {
+        Map<ProjectRef, Set<ProjectRef>> artifactExclusions = new HashMap<>();
         List<Dependency> managedDependencies = Collections.emptyList();
         if (module.getModel().getDependencyManagement() != null) {
             managedDependencies = module.getModel().getDependencyManagement().getDependencies();
         }
         managedDependencies.forEach(dep -> artifactExclusions.put(toProjectRef(dep),
-                toProjectRefs(dep.getExclusions())));
+                new HashSet<>(toProjectRefs(dep.getExclusions()))));
         return artifactExclusions;
     }
 
     private boolean isIgnoredModule(String groupId, String artifactId) {
-        return ignoreModules.contains(groupId + ":" + artifactId)
-                || (groupId.equals(mavenProject.getGroupId()) && ignoreModules.contains(":" + artifactId));
+        return ignoredModules.matches(groupId, artifactId);
     }
 
     /**
      * If a property references another property (possibly recursively), this method returns the final referenced
      * property name and the module where the property is defined.
      * <p>
-     * This method doesn't support cases when a property value is a composition of multiple properties, or a composition
-     * of properties and strings.
+     * This method doesn't follow property values that are a composition of multiple properties, or a composition
+     * of properties and strings. Such a property is returned as the final property. Composite values can be
+     * evaluated by {@link PropertyResolutionTable#interpolate(Project, String)}.
+     * <p>
+     * A chain of references that loops back to a property already on the chain is followed up to the property that
+     * closes the loop.
      */
     static PropertyRef followProperties(Project pmeProject, String propertyName) {
+        return followProperties(pmeProject, propertyName, new IdentityHashMap<>());
+    }
+
+    private static PropertyRef followProperties(Project pmeProject, String propertyName,
+                                                Map<Project, Set<String>> chain) {
         Properties properties = pmeProject.getModel().getProperties();
         if (!properties.containsKey(propertyName)) {
             // property not present in current module, look into parent module
@@ -717,7 +937,7 @@ public class UpgradeComponentsMojo extends AbstractChannelMojo {
             if (parentProject == null) {
                 return null;
             } else {
-                return followProperties(parentProject, propertyName);
+                return followProperties(parentProject, propertyName, chain);
             }
         } else {
             // property is defined in this module
@@ -725,9 +945,11 @@ public class UpgradeComponentsMojo extends AbstractChannelMojo {
             if (VersionUtils.isProperty(propertyValue)) {
                 // the property value is also a property reference -> follow the chain
                 String newPropertyName = VersionUtils.extractPropertyName(propertyValue);
-                PropertyRef targetProperty = followProperties(pmeProject, newPropertyName);
-                if (targetProperty != null) {
-                    return targetProperty;
+                if (chain.computeIfAbsent(pmeProject, p -> new HashSet<>()).add(propertyName)) {
+                    PropertyRef targetProperty = followProperties(pmeProject, newPropertyName, chain);
+                    if (targetProperty != null) {
+                        return targetProperty;
+                    }
                 }
             }
             return new PropertyRef(pmeProject, propertyName);
@@ -741,21 +963,28 @@ public class UpgradeComponentsMojo extends AbstractChannelMojo {
      * @return external property reference
      */
     static ExternalProperty resolveExternalProperty(MavenProject mavenProject, String propertyName) {
+        return resolveExternalProperty(mavenProject, propertyName, new IdentityHashMap<>());
+    }
+
+    private static ExternalProperty resolveExternalProperty(MavenProject mavenProject, String propertyName,
+                                                            Map<MavenProject, Set<String>> chain) {
         if (mavenProject == null) {
             return null;
         }
         Properties properties = mavenProject.getModel().getProperties();
         if (!properties.containsKey(propertyName)) {
-            return resolveExternalProperty(mavenProject.getParent(), propertyName);
+            return resolveExternalProperty(mavenProject.getParent(), propertyName, chain);
         } else {
             // property is defined in this module
             String propertyValue = (String) properties.get(propertyName);
             if (VersionUtils.isProperty(propertyValue)) {
                 // the property value is also a property reference -> follow the chain
                 String newPropertyName = VersionUtils.extractPropertyName(propertyValue);
-                ExternalProperty targetProperty = resolveExternalProperty(mavenProject, newPropertyName);
-                if (targetProperty != null) {
-                    return targetProperty;
+                if (chain.computeIfAbsent(mavenProject, p -> new HashSet<>()).add(propertyName)) {
+                    ExternalProperty targetProperty = resolveExternalProperty(mavenProject, newPropertyName, chain);
+                    if (targetProperty != null) {
+                        return targetProperty;
+                    }
                 }
             }
             return new ExternalProperty(propertyName, propertyValue);
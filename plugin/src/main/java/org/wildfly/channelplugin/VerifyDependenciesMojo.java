@@ -24,6 +24,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static hu.vissy.texttable.BorderFormatter.Builder;
@@ -74,8 +75,8 @@ public class VerifyDependenciesMojo extends AbstractChannelMojo {
 
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
-        initChannelSession();
         final List<ProjectRef> ignoredStreams = ignoreStreams.stream().map(SimpleProjectRef::parse).collect(Collectors.toList());
+        initChannelSession();
 
         List<Pair<ArtifactRef, String>> unalignedDependencies = new ArrayList<>();
         List<ArtifactRef> streamNotFoundDependencies = new ArrayList<>();
@@ -84,38 +85,35 @@ public class VerifyDependenciesMojo extends AbstractChannelMojo {
         projects.add(mavenProject);
         projects.addAll(mavenProject.getCollectedProjects());
 
-        for (MavenProject project: projects) {
-
-            Model model = project.getModel();
-            List<ArtifactRef> dependencies = model.getDependencies().stream()
-                    .filter(d -> !ignoreScopes.contains(d.getScope()))
-                    .map(ConversionUtils::toArtifactRef)
-                    .collect(Collectors.toList());
-
-            for (ArtifactRef d : dependencies) {
-                try {
-                    VersionResult result = channelSession.findLatestMavenArtifactVersion(d.getGroupId(), d.getArtifactId(),
-                            d.getType(), d.getClassifier(), d.getVersionString());
-                    String expectedVersion = result.getVersion();
-                    if (!d.getVersionString().equals(expectedVersion)) {
-                        if (ignoredStreams.contains(new SimpleProjectRef(d.getGroupId(), d.getArtifactId()))) {
-                            getLog().info(String.format("Ignoring dependency %s:%s:%s not matching %s",
-                                    d.getGroupId(), d.getArtifactId(), d.getVersionString(), expectedVersion));
-                        } else {
-                            unalignedDependencies.add(Pair.of(d, expectedVersion));
+        try {
+            for (MavenProject project: projects) {
+
+                Model model = project.getModel();
+                List<ArtifactRef> dependencies = model.getDependencies().stream()
+                        .filter(d -> !ignoreScopes.contains(d.getScope()))
+                        .map(ConversionUtils::toArtifactRef)
+                        .collect(Collectors.toList());
+
+                for (ArtifactRef d : dependencies) {
+                    Optional<VersionResult> result = findLatestVersion(d);
+                    if (result.isPresent()) {
+                        String expectedVersion = result.get().getVersion();
+                        if (!d.getVersionString().equals(expectedVersion)) {
+                            if (ignoredStreams.contains(new SimpleProjectRef(d.getGroupId(), d.getArtifactId()))) {
+                                getLog().info(String.format("Ignoring dependency %s:%s:%s not matching %s",
+                                        d.getGroupId(), d.getArtifactId(), d.getVersionString(), expectedVersion));
+                            } else {
+                                unalignedDependencies.add(Pair.of(d, expectedVersion));
+                            }
                         }
-                    }
-                } catch (NoStreamFoundException e) {
-                    String message = String.format("Artifact %s:%s:%s not present in configured channels.",
-                            d.getGroupId(), d.getArtifactId(), d.getVersionString());
-                    streamNotFoundDependencies.add(d);
-                    if (failWhenStreamNotFound) {
-                        throw new MojoFailureException(message, e);
                     } else {
-                        getLog().warn(message);
+                        streamNotFoundDependencies.add(d);
+                        getLog().warn(streamNotFoundMessage(d));
                     }
                 }
             }
+        } finally {
+            closeChannelSession();
         }
 
         printReportFiles(unalignedDependencies, streamNotFoundDependencies);
@@ -132,6 +130,28 @@ public class VerifyDependenciesMojo extends AbstractChannelMojo {
         }
     }
 
+    /**
+     * Looks up the channel version of given dependency. When the build should fail on missing streams, the lookup
+     * failure is propagated with the {@link NoStreamFoundException} as the cause.
+     */
+    private Optional<VersionResult> findLatestVersion(ArtifactRef d) throws MojoFailureException {
+        if (!failWhenStreamNotFound) {
+            return channelSession.findLatestMavenArtifactVersionIfPresent(d.getGroupId(), d.getArtifactId(),
+                    d.getType(), d.getClassifier(), d.getVersionString());
+        }
+        try {
+            return Optional.of(channelSession.findLatestMavenArtifactVersion(d.getGroupId(), d.getArtifactId(),
+                    d.getType(), d.getClassifier(), d.getVersionString()));
+        } catch (NoStreamFoundException e) {
+            throw new MojoFailureException(streamNotFoundMessage(d), e);
+        }
+    }
+
+    private static String streamNotFoundMessage(ArtifactRef d) {
+        return String.format("Artifact %s:%s:%s not present in configured channels.",
+                d.getGroupId(), d.getArtifactId(), d.getVersionString());
+    }
+
     private void printReportFiles(List<Pair<ArtifactRef, String>> unalignedDependencies, List<ArtifactRef> streamNotFoundDependencies)
             throws MojoExecutionException {
         final Path buildDirectory = Path.of(mavenProject.getBuild().getDirectory());
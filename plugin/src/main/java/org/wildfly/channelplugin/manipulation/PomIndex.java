@@ -0,0 +1,417 @@
+package org.wildfly.channelplugin.manipulation;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.codehaus.mojo.versions.api.PomHelper;
+import org.codehaus.stax2.XMLInputFactory2;
+
+/**
+ * Index of the POM elements edited by {@link PomManipulator}, mapping the elements to character ranges in the
+ * document. The index is built by a single pass over the document.
+ * <p>
+ * The index contains:
+ * <ul>
+ *     <li>version elements of dependencies, indexed by "groupId:artifactId",</li>
+ *     <li>values of properties defined in the main properties section, indexed by property name,</li>
+ *     <li>end elements of the sections where new elements are injected, indexed by the section path. For sections
+ *     written as empty elements ("&lt;properties/&gt;"), the "/&gt;" closing the empty element is indexed
+ *     instead.</li>
+ * </ul>
+ */
+final class PomIndex {
+
+    static final String PROJECT_PATH = "/project";
+    static final String PROPERTIES_PATH = "/project/properties";
+    static final String DEPENDENCY_MANAGEMENT_PATH = "/project/dependencyManagement";
+    static final String DEPENDENCY_MANAGEMENT_DEPENDENCIES_PATH = "/project/dependencyManagement/dependencies";
+    static final String REPOSITORIES_PATH = "/project/repositories";
+    static final String PLUGIN_REPOSITORIES_PATH = "/project/pluginRepositories";
+
+    // States of the path automaton. Each state represents the path of the current element, only the paths relevant
+    // for the index are distinguished.
+    private static final int DOCUMENT = 0;
+    private static final int PROJECT = 1;
+    private static final int PROPERTIES = 2;
+    private static final int PROPERTY = 3;
+    private static final int DEPENDENCY_MANAGEMENT = 4;
+    private static final int MANAGED_DEPENDENCIES = 5;
+    private static final int DEPENDENCIES = 6;
+    private static final int DEPENDENCY = 7;
+    private static final int PROFILES = 8;
+    private static final int PROFILE = 9;
+    private static final int PROFILE_DEPENDENCY_MANAGEMENT = 10;
+    private static final int BUILD = 11;
+    private static final int PLUGIN_MANAGEMENT = 12;
+    private static final int PLUGINS = 13;
+    private static final int PLUGIN = 14;
+    // dependencies in profiles and plugins
+    private static final int OTHER_DEPENDENCIES = 15;
+    private static final int OTHER_DEPENDENCY = 16;
+    private static final int DEPENDENCY_VERSION = 17;
+    private static final int REPOSITORIES = 18;
+    private static final int PLUGIN_REPOSITORIES = 19;
+    private static final int OTHER = 20;
+
+    private final Map<String, List<DependencyElement>> dependencies = new HashMap<>();
+    private final Map<String, List<Range>> properties = new HashMap<>();
+    private final Set<String> presentSections = new HashSet<>();
+    private final Map<String, Range> sectionEndTags = new HashMap<>();
+    private final Map<String, Range> emptySectionEnds = new HashMap<>();
+
+    private PomIndex() {
+    }
+
+    /**
+     * @param content POM document
+     * @param implicitProperties properties used to evaluate dependency groupIds and artifactIds
+     */
+    static PomIndex build(CharSequence content, Map<String, String> implicitProperties) throws XMLStreamException {
+        PomIndex index = new PomIndex();
+        XMLInputFactory inputFactory = XMLInputFactory2.newInstance();
+        inputFactory.setProperty(XMLInputFactory2.P_PRESERVE_LOCATION, Boolean.TRUE);
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(new StringReader(content.toString()));
+        try {
+            index.scan(reader, content, implicitProperties);
+        } finally {
+            reader.close();
+        }
+        return index;
+    }
+
+    /**
+     * Transition of the path automaton when an element is started.
+     *
+     * @param state state representing the parent element
+     * @param elementName name of the started element
+     * @return state representing the started element
+     */
+    private static int transition(int state, String elementName) {
+        switch (state) {
+            case DOCUMENT:
+                return "project".equals(elementName) ? PROJECT : OTHER;
+            case PROJECT:
+                switch (elementName) {
+                    case "properties":
+                        return PROPERTIES;
+                    case "dependencyManagement":
+                        return DEPENDENCY_MANAGEMENT;
+                    case "dependencies":
+                        return DEPENDENCIES;
+                    case "profiles":
+                        return PROFILES;
+                    case "build":
+                        return BUILD;
+                    case "repositories":
+                        return REPOSITORIES;
+                    case "pluginRepositories":
+                        return PLUGIN_REPOSITORIES;
+                    default:
+                        return OTHER;
+                }
+            case PROPERTIES:
+                return PROPERTY;
+            case DEPENDENCY_MANAGEMENT:
+                return "dependencies".equals(elementName) ? MANAGED_DEPENDENCIES : OTHER;
+            case MANAGED_DEPENDENCIES:
+            case DEPENDENCIES:
+                return "dependency".equals(elementName) ? DEPENDENCY : OTHER;
+            case PROFILES:
+                return "profile".equals(elementName) ? PROFILE : OTHER;
+            case PROFILE:
+                switch (elementName) {
+                    case "dependencyManagement":
+                        return PROFILE_DEPENDENCY_MANAGEMENT;
+                    case "dependencies":
+                        return OTHER_DEPENDENCIES;
+                    case "build":
+                        return BUILD;
+                    default:
+                        return OTHER;
+                }
+            case PROFILE_DEPENDENCY_MANAGEMENT:
+            case PLUGIN:
+                return "dependencies".equals(elementName) ? OTHER_DEPENDENCIES : OTHER;
+            case BUILD:
+                switch (elementName) {
+                    case "pluginManagement":
+                        return PLUGIN_MANAGEMENT;
+                    case "plugins":
+                        return PLUGINS;
+                    default:
+                        return OTHER;
+                }
+            case PLUGIN_MANAGEMENT:
+                return "plugins".equals(elementName) ? PLUGINS : OTHER;
+            case PLUGINS:
+                return "plugin".equals(elementName) ? PLUGIN : OTHER;
+            case OTHER_DEPENDENCIES:
+                return "dependency".equals(elementName) ? OTHER_DEPENDENCY : OTHER;
+            case DEPENDENCY:
+            case OTHER_DEPENDENCY:
+                return "version".equals(elementName) ? DEPENDENCY_VERSION : OTHER;
+            default:
+                return OTHER;
+        }
+    }
+
+    /**
+     * @return path of the section represented by given state, or null if the state doesn't represent a section
+     */
+    private static String sectionPath(int state) {
+        switch (state) {
+            case PROJECT:
+                return PROJECT_PATH;
+            case PROPERTIES:
+                return PROPERTIES_PATH;
+            case DEPENDENCY_MANAGEMENT:
+                return DEPENDENCY_MANAGEMENT_PATH;
+            case MANAGED_DEPENDENCIES:
+                return DEPENDENCY_MANAGEMENT_DEPENDENCIES_PATH;
+            case REPOSITORIES:
+                return REPOSITORIES_PATH;
+            case PLUGIN_REPOSITORIES:
+                return PLUGIN_REPOSITORIES_PATH;
+            default:
+                return null;
+        }
+    }
+
+    private void scan(XMLStreamReader reader, CharSequence content, Map<String, String> implicitProperties)
+            throws XMLStreamException {
+        int[] states = new int[16];
+        int depth = 0;
+        states[0] = DOCUMENT;
+
+        boolean elementStarted = false;
+        int elementContentStart = -1;
+
+        String groupId = null;
+        String artifactId = null;
+        Range version = null;
+        Range versionEndTag = null;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT
+                    && !elementStarted) {
+                continue;
+            }
+            int offset = reader.getLocation().getCharacterOffset();
+            if (elementStarted) {
+                // content of an element starts where the event following its start element starts
+                elementContentStart = offset;
+                elementStarted = false;
+            }
+
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                int parentState = states[depth];
+                if ((parentState == DEPENDENCY || parentState == OTHER_DEPENDENCY)
+                        && ("groupId".equals(reader.getLocalName()) || "artifactId".equals(reader.getLocalName()))) {
+                    // reads the element including its end element, the state doesn't change
+                    if ("groupId".equals(reader.getLocalName())) {
+                        groupId = reader.getElementText().trim();
+                    } else {
+                        artifactId = reader.getElementText().trim();
+                    }
+                    continue;
+                }
+
+                int state = transition(parentState, reader.getLocalName());
+                if (++depth == states.length) {
+                    states = Arrays.copyOf(states, depth * 2);
+                }
+                states[depth] = state;
+                elementStarted = true;
+
+                if (state == DEPENDENCY || state == OTHER_DEPENDENCY) {
+                    groupId = null;
+                    artifactId = null;
+                    version = null;
+                    versionEndTag = null;
+                } else if (sectionPath(state) != null) {
+                    presentSections.add(sectionPath(state));
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                int state = states[depth--];
+                switch (state) {
+                    case DEPENDENCY_VERSION:
+                        if (hasEndTag(content, offset)) {
+                            version = new Range(elementContentStart, offset);
+                            versionEndTag = endTag(content, offset);
+                        }
+                        break;
+                    case DEPENDENCY:
+                    case OTHER_DEPENDENCY:
+                        if (version != null) {
+                            addDependency(new DependencyElement(state == DEPENDENCY, groupId, artifactId,
+                                    evaluate(groupId, implicitProperties), evaluate(artifactId, implicitProperties),
+                                    version, versionEndTag));
+                        }
+                        break;
+                    case PROPERTY:
+                        if (hasEndTag(content, offset)) {
+                            properties.computeIfAbsent(reader.getLocalName(), k -> new ArrayList<>())
+                                    .add(new Range(elementContentStart, offset));
+                        }
+                        break;
+                    default:
+                        String sectionPath = sectionPath(state);
+                        if (sectionPath != null) {
+                            if (hasEndTag(content, offset)) {
+                                sectionEndTags.put(sectionPath, endTag(content, offset));
+                            } else {
+                                emptySectionEnds.put(sectionPath, emptyElementEnd(content, offset));
+                            }
+                        }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if an end element starts at given offset. Empty elements ("&lt;element/&gt;") have no end element.
+     */
+    private static boolean hasEndTag(CharSequence content, int offset) {
+        return offset + 1 < content.length() && content.charAt(offset) == '<' && content.charAt(offset + 1) == '/';
+    }
+
+    private static Range endTag(CharSequence content, int offset) {
+        for (int i = offset; i < content.length(); i++) {
+            if (content.charAt(i) == '>') {
+                return new Range(offset, i + 1);
+            }
+        }
+        throw new IllegalStateException("Unterminated element at offset " + offset);
+    }
+
+    /**
+     * Returns the "/&gt;" closing an empty element, given the offset of the element.
+     */
+    private static Range emptyElementEnd(CharSequence content, int offset) {
+        Range tag = endTag(content, offset);
+        if (content.charAt(tag.end - 2) != '/') {
+            throw new IllegalStateException("Expected an empty element at offset " + offset);
+        }
+        return new Range(tag.end - 2, tag.end);
+    }
+
+    private void addDependency(DependencyElement dependency) {
+        dependencies.computeIfAbsent(dependency.groupId + ":" + dependency.artifactId, k -> new ArrayList<>())
+                .add(dependency);
+        if (!Objects.equals(dependency.groupId, dependency.resolvedGroupId)
+                || !Objects.equals(dependency.artifactId, dependency.resolvedArtifactId)) {
+            dependencies.computeIfAbsent(dependency.resolvedGroupId + ":" + dependency.resolvedArtifactId,
+                    k -> new ArrayList<>()).add(dependency);
+        }
+    }
+
+    /**
+     * Returns dependency elements whose groupId and artifactId match given values, either as written in the POM or
+     * after evaluating the property expressions.
+     */
+    List<DependencyElement> getDependencies(String groupId, String artifactId) {
+        return dependencies.getOrDefault(groupId + ":" + artifactId, Collections.emptyList());
+    }
+
+    /**
+     * Returns value ranges of given property defined in the main properties section.
+     */
+    List<Range> getPropertyValues(String propertyName) {
+        return properties.getOrDefault(propertyName, Collections.emptyList());
+    }
+
+    /**
+     * Is given section present in the POM?
+     */
+    boolean hasSection(String path) {
+        return presentSections.contains(path);
+    }
+
+    /**
+     * Returns the end element of given section, or null if the section is not present or is an empty element.
+     */
+    Range getSectionEndTag(String path) {
+        return sectionEndTags.get(path);
+    }
+
+    /**
+     * Returns the "/&gt;" closing given section if the section is an empty element, or null otherwise.
+     */
+    Range getEmptySectionEnd(String path) {
+        return emptySectionEnds.get(path);
+    }
+
+    private static String evaluate(String value, Map<String, String> implicitProperties) {
+        return value == null ? null : PomHelper.evaluate(value, implicitProperties);
+    }
+
+    /**
+     * Range of characters in the document, start inclusive, end exclusive.
+     */
+    static final class Range {
+        final int start;
+        final int end;
+
+        Range(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Range range = (Range) o;
+            return start == range.start && end == range.end;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return "[" + start + ", " + end + ")";
+        }
+    }
+
+    /**
+     * Dependency element with a version.
+     */
+    static final class DependencyElement {
+        // declared in the dependencies or dependencyManagement section of the project, not in a profile or a plugin
+        final boolean projectLevel;
+        final String groupId;
+        final String artifactId;
+        final String resolvedGroupId;
+        final String resolvedArtifactId;
+        final Range version;
+        final Range versionEndTag;
+
+        DependencyElement(boolean projectLevel, String groupId, String artifactId, String resolvedGroupId,
+                String resolvedArtifactId, Range version, Range versionEndTag) {
+            this.projectLevel = projectLevel;
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.resolvedGroupId = resolvedGroupId;
+            this.resolvedArtifactId = resolvedArtifactId;
+            this.version = version;
+            this.versionEndTag = versionEndTag;
+        }
+    }
+}
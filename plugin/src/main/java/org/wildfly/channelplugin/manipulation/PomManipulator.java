@@ -2,303 +2,268 @@ package org.wildfly.channelplugin.manipulation;
 
 import java.io.IOException;
 import java.io.Writer;
-import java.util.Arrays;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Stack;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
-import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.XMLEvent;
 
 import org.apache.http.util.Asserts;
+import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
+import org.apache.maven.model.Model;
 import org.codehaus.mojo.versions.api.PomHelper;
-import org.codehaus.mojo.versions.rewriting.ModifiedPomXMLEventReader;
 import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.StringUtils;
 import org.codehaus.plexus.util.WriterFactory;
-import org.codehaus.stax2.XMLInputFactory2;
 import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.ext.common.model.Project;
 
+import static org.wildfly.channelplugin.manipulation.PomIndex.DEPENDENCY_MANAGEMENT_DEPENDENCIES_PATH;
+import static org.wildfly.channelplugin.manipulation.PomIndex.DEPENDENCY_MANAGEMENT_PATH;
+import static org.wildfly.channelplugin.manipulation.PomIndex.PLUGIN_REPOSITORIES_PATH;
+import static org.wildfly.channelplugin.manipulation.PomIndex.PROJECT_PATH;
+import static org.wildfly.channelplugin.manipulation.PomIndex.PROPERTIES_PATH;
+import static org.wildfly.channelplugin.manipulation.PomIndex.REPOSITORIES_PATH;
+
 /**
  * Provides functionality to manipulate properties and dependencies in a POM file.
+ * <p>
+ * The edited elements are located via a {@link PomIndex}. The operations are recorded as replacements of character
+ * ranges of the document, which are applied when {@link #writePom()} is called.
+ * <p>
+ * The POM file is only read and indexed when it's needed by the first edit, so instances for modules that are never
+ * edited are cheap.
  */
 public class PomManipulator {
 
-    private static final String DEPENDENCY_MANAGEMENT_PATH = "/project/dependencyManagement";
-    private static final String DEPENDENCY_MANAGEMENT_DEPENDENCIES_PATH = "/project/dependencyManagement/dependencies";
-    private static final String REPOSITORIES_PATH = "/project/repositories";
-    private static final String PLUGIN_REPOSITORIES_PATH = "/project/pluginRepositories";
-    private static final String PROJECT = "project";
-    private static final String DEPENDENCY_MANAGEMENT = "dependencyManagement";
-    private static final String DEPENDENCIES = "dependencies";
-    private static final String REPOSITORIES = "repositories";
-    private static final String PLUGIN_REPOSITORIES = "pluginRepositories";
+    private static final String VERSION_END_TAG = "</version>";
 
     private final Project project;
-    private final ModifiedPomXMLEventReader eventReader;
-    private final StringBuilder content;
+    private StringBuilder content;
+    private PomIndex index;
     private boolean closed = false;
 
+    // Pending edits: replacements of document ranges, and elements injected into the sections when the POM is written.
+    private final Map<PomIndex.Range, String> replacements = new HashMap<>();
+    private final List<InjectedProperty> injectedProperties = new ArrayList<>();
+    private final List<String> injectedManagedDependencies = new ArrayList<>();
+    private final List<String> injectedRepositories = new ArrayList<>();
+    private final List<String> injectedPluginRepositories = new ArrayList<>();
+    // sections that might need to be created, in the order in which they were first requested
+    private final Set<String> requestedSections = new LinkedHashSet<>();
+
     /**
      * @param project Project instance
      */
     public PomManipulator(Project project) {
-        try {
-            this.project = project;
-            XMLInputFactory inputFactory = XMLInputFactory2.newInstance();
-            inputFactory.setProperty(XMLInputFactory2.P_PRESERVE_LOCATION, Boolean.TRUE);
-            this.content = PomHelper.readXmlFile(project.getPom());
-            this.eventReader = new ModifiedPomXMLEventReader(content, inputFactory, project.getPom().getPath());
-        } catch (IOException | XMLStreamException e) {
-            throw new RuntimeException("Couldn't initialize PomWriter instance", e);
-        }
+        this.project = project;
+    }
+
+    /**
+     * Reads and indexes the POM file right away, rather than on the first edit. This allows to prepare manipulators of
+     * multiple modules concurrently, the edits themselves are not thread safe.
+     */
+    public void load() {
+        index();
     }
 
-    public void overrideDependencyVersion(ArtifactRef d, String newVersion) throws XMLStreamException {
-        PomHelper.setDependencyVersion(eventReader, d.getGroupId(), d.getArtifactId(), d.getVersionString(),
-                newVersion, project.getModel());
-    }
-
-    public void overrideDependencyVersion(String groupId, String artifactId, String oldVersionString, String newVersion) throws XMLStreamException {
-        PomHelper.setDependencyVersion(eventReader, groupId, artifactId, oldVersionString, newVersion,
-                project.getModel());
-    }
-
-    public void overrideDependencyVersionWithComment(ArtifactRef d, String newVersion) throws XMLStreamException {
-        overrideDependencyVersionWithComment(eventReader, d.getGroupId(), d.getArtifactId(), d.getVersionString(), newVersion);
-    }
-
-    static void overrideDependencyVersionWithComment(final ModifiedPomXMLEventReader eventReader,
-                                                     final String groupId, final String artifactId,
-                                                     final String oldVersionString, final String newVersion)
-            throws XMLStreamException {
-        eventReader.rewind();
-
-        Stack<String> stack = new Stack<>();
-        String path = "";
-
-        List<String> locations = Arrays.asList(
-                "/project/dependencyManagement/dependencies/dependency",
-                "/project/dependencies/dependency"
-        );
-
-        boolean matchingGroupId = false;
-        boolean matchingArtifactId = false;
-        boolean hasVersion = false;
-
-        while (eventReader.hasNext()) {
-            XMLEvent event = eventReader.nextEvent();
-            if (event.isStartElement()) {
-                String parentElementPath = path;
-                stack.push(path);
-                String elementName = event.asStartElement().getName().getLocalPart();
-                path = path + "/" + elementName;
-
-                if (locations.contains(parentElementPath)) {
-                    switch (elementName) {
-                        case "groupId":
-                            matchingGroupId = groupId.equals(eventReader.getElementText().trim());
-                            path = stack.pop();
-                            break;
-                        case "artifactId":
-                            matchingArtifactId = artifactId.equals(eventReader.getElementText().trim());
-                            path = stack.pop();
-                            break;
-                        case "version":
-                            eventReader.mark(0);
-                            break;
-                    }
-                }
-            } else if (event.isEndElement()) {
-                String parentPath = stack.peek();
-                String elementName = event.asEndElement().getName().getLocalPart();
-                if (locations.contains(parentPath) || locations.contains(path)) {
-                    switch (elementName) {
-                        case "version":
-                            eventReader.mark(1);
-                            String versionString = eventReader.getBetween(0, 1);
-                            hasVersion = !versionString.trim().isEmpty();
-                            break;
-                        case "dependency":
-                            if (matchingGroupId && matchingArtifactId && hasVersion) {
-                                eventReader.replaceMark(1, "</version> <!-- Original version: " + oldVersionString + " -->");
-                                eventReader.replaceBetween(0, 1, newVersion);
-                            }
-
-                            matchingGroupId = false;
-                            matchingArtifactId = false;
-                            hasVersion = false;
-                            eventReader.clearMark(0);
-                            eventReader.clearMark(1);
-                            break;
-                    }
-                }
-
-                path = stack.pop();
+    /**
+     * Reads and indexes the POM file on first use.
+     */
+    private PomIndex index() {
+        if (index == null) {
+            try {
+                content = PomHelper.readXmlFile(project.getPom());
+                index = PomIndex.build(content, getImplicitProperties(project.getModel()));
+            } catch (IOException | XMLStreamException e) {
+                throw new RuntimeException("Couldn't initialize PomWriter instance", e);
             }
         }
+        return index;
     }
 
-    public boolean overrideProperty(String propertyName, String propertyValue) throws XMLStreamException {
-        return PomHelper.setPropertyVersion(eventReader, null, propertyName, propertyValue);
+    public void overrideDependencyVersion(ArtifactRef d, String newVersion) {
+        overrideDependencyVersion(d.getGroupId(), d.getArtifactId(), d.getVersionString(), newVersion);
     }
 
-    public void injectManagedDependency(ArtifactRef dependency, Collection<ProjectRef> exclusions, String oldVersion)
-            throws XMLStreamException {
-        injectDependencyManagementSection(eventReader);
-        injectDependencyManagementDependenciesSection(eventReader);
-        injectManagedDependency(eventReader, dependency, exclusions, oldVersion);
+    /**
+     * Replaces version of dependencies matching given GA and old version. Follows the semantics of
+     * {@link PomHelper#setDependencyVersion}: groupId and artifactId can be given by project properties, the old version
+     * can be a version range.
+     */
+    public void overrideDependencyVersion(String groupId, String artifactId, String oldVersionString, String newVersion) {
+        assertOpen();
+        for (PomIndex.DependencyElement dependency: index().getDependencies(groupId, artifactId)) {
+            if (groupId.equals(dependency.resolvedGroupId) && artifactId.equals(dependency.resolvedArtifactId)
+                    && isVersionOverlap(oldVersionString, getCurrentText(dependency.version).trim())) {
+                replacements.put(dependency.version, newVersion);
+            }
+        }
     }
 
-    static void injectRepositoriesSection(ModifiedPomXMLEventReader eventReader) throws XMLStreamException {
-        eventReader.rewind();
-
-        Stack<String> stack = new Stack<String>();
-        String path = "";
-
-        while (eventReader.hasNext()) {
-            XMLEvent event = eventReader.nextEvent();
-            if (event.isStartElement()) {
-                if (path.equals("/project") && event.asStartElement().getName().getLocalPart().equals(REPOSITORIES)) {
-                    // section is already present
-                    return;
-                }
-
-                stack.push(path);
-                path = path + "/" + event.asStartElement().getName().getLocalPart();
-            } else if (event.isEndElement()) {
-                if (event.asEndElement().getName().getLocalPart().equals(PROJECT)) {
-                    eventReader.mark(0);
-                    eventReader.replaceMark(0, composeRepositoriesElementString()
-                            + "</project>"
-                    );
-                    eventReader.clearMark(0);
-                    return;
-                }
-
-                path = stack.pop();
+    /**
+     * Replaces version of a dependency in the dependencies or dependencyManagement section, and appends a comment with
+     * the original version after the version element.
+     */
+    public void overrideDependencyVersionWithComment(ArtifactRef d, String newVersion) {
+        assertOpen();
+        for (PomIndex.DependencyElement dependency: index().getDependencies(d.getGroupId(), d.getArtifactId())) {
+            if (dependency.projectLevel
+                    && d.getGroupId().equals(dependency.groupId) && d.getArtifactId().equals(dependency.artifactId)
+                    && !getCurrentText(dependency.version).trim().isEmpty()) {
+                // preceding comments stay after the new one
+                String precedingComments = replacements.containsKey(dependency.versionEndTag)
+                        ? replacements.get(dependency.versionEndTag).substring(VERSION_END_TAG.length()) : "";
+                replacements.put(dependency.versionEndTag, VERSION_END_TAG + " <!-- Original version: "
+                        + d.getVersionString() + " -->" + precedingComments);
+                replacements.put(dependency.version, newVersion);
             }
         }
     }
 
-    static void injectPluginRepositoriesSection(ModifiedPomXMLEventReader eventReader) throws XMLStreamException {
-        eventReader.rewind();
-
-        Stack<String> stack = new Stack<String>();
-        String path = "";
-
-        while (eventReader.hasNext()) {
-            XMLEvent event = eventReader.nextEvent();
-            if (event.isStartElement()) {
-                if (path.equals("/project") && event.asStartElement().getName().getLocalPart().equals(PLUGIN_REPOSITORIES)) {
-                    // section is already present
-                    return;
-                }
-
-                stack.push(path);
-                path = path + "/" + event.asStartElement().getName().getLocalPart();
-            } else if (event.isEndElement()) {
-                if (event.asEndElement().getName().getLocalPart().equals(PROJECT)) {
-                    eventReader.mark(0);
-                    eventReader.replaceMark(0, composePluginRepositoriesElementString()
-                            + "</project>"
-                    );
-                    eventReader.clearMark(0);
-                    return;
-                }
-
-                path = stack.pop();
+    /**
+     * Overrides value of a property defined in the main properties section.
+     *
+     * @return true if the property is defined in the POM (or was previously injected by this instance)
+     */
+    public boolean overrideProperty(String propertyName, String propertyValue) {
+        assertOpen();
+        boolean found = false;
+        // the model reflects the main properties section, so the POM doesn't need to be read for undefined properties
+        if (index != null || project.getModel().getProperties().containsKey(propertyName)) {
+            for (PomIndex.Range value: index().getPropertyValues(propertyName)) {
+                replacements.put(value, propertyValue);
+                found = true;
+            }
+        }
+        for (InjectedProperty property: injectedProperties) {
+            if (property.name.equals(propertyName)) {
+                property.value = propertyValue;
+                found = true;
             }
         }
+        return found;
     }
 
-    public void injectRepository(String id, String url) throws XMLStreamException {
-        injectRepository(eventReader, id, url);
+    /**
+     * Injects new dependency at the end of the dependencyManagement section. The dependencyManagement section is
+     * created if it's not present.
+     */
+    public void injectManagedDependency(ArtifactRef dependency, Collection<ProjectRef> exclusions, String oldVersion) {
+        assertOpen();
+        requestedSections.add(DEPENDENCY_MANAGEMENT_PATH);
+        injectedManagedDependencies.add(composeDependencyElementString(dependency, exclusions, oldVersion));
     }
 
-    public void injectPluginRepository(String id, String url) throws XMLStreamException {
-        injectPluginRepository(eventReader, id, url);
+    /**
+     * Injects new repository at the end of the repositories section. The repositories section is created if it's not
+     * present.
+     */
+    public void injectRepository(String id, String url) {
+        assertOpen();
+        requestedSections.add(REPOSITORIES_PATH);
+        injectedRepositories.add(composeRepositoryElementString(id, url));
     }
 
-    static void injectRepository(ModifiedPomXMLEventReader eventReader, String id, String url) throws XMLStreamException {
-        injectRepositoriesSection(eventReader);
-
-        eventReader.rewind();
-
-        Stack<String> stack = new Stack<String>();
-        String path = "";
-
-        while (eventReader.hasNext()) {
-            XMLEvent event = eventReader.nextEvent();
-            if (event.isStartElement()) {
-                stack.push(path);
-                path = path + "/" + event.asStartElement().getName().getLocalPart();
-            } else if (event.isEndElement()) {
-                // replaces "</repositories>" end element with new repository + the end element
-                String elementName = event.asEndElement().getName().getLocalPart();
-                if (elementName.equals(REPOSITORIES) && path.equals(REPOSITORIES_PATH)) {
-                    eventReader.mark(0);
-                    eventReader.replaceMark(0, composeRepositoryElementString(id, url)
-                            + "    </repositories>"
-                    );
-                    eventReader.clearMark(0);
-                    break;
-                }
+    /**
+     * Injects new plugin repository at the end of the pluginRepositories section. The pluginRepositories section is
+     * created if it's not present.
+     */
+    public void injectPluginRepository(String id, String url) {
+        assertOpen();
+        requestedSections.add(PLUGIN_REPOSITORIES_PATH);
+        injectedPluginRepositories.add(composePluginRepositoryElementString(id, url));
+    }
 
-                path = stack.pop();
-            }
-        }
+    /**
+     * Injects new property at the end of the properties section.
+     * <p>
+     * The properties section must be already present in the POM.
+     */
+    public void injectProperty(String key, String version) {
+        assertOpen();
+        injectedProperties.add(new InjectedProperty(key, version));
     }
 
-    static void injectPluginRepository(ModifiedPomXMLEventReader eventReader, String id, String url) throws XMLStreamException {
-        injectPluginRepositoriesSection(eventReader);
-
-        eventReader.rewind();
-
-        Stack<String> stack = new Stack<>();
-        String path = "";
-
-        while (eventReader.hasNext()) {
-            XMLEvent event = eventReader.nextEvent();
-            if (event.isStartElement()) {
-                stack.push(path);
-                path = path + "/" + event.asStartElement().getName().getLocalPart();
-            } else if (event.isEndElement()) {
-                // replaces "</repositories>" end element with new repository + the end element
-                String elementName = event.asEndElement().getName().getLocalPart();
-                if (elementName.equals(PLUGIN_REPOSITORIES) && path.equals(PLUGIN_REPOSITORIES_PATH)) {
-                    eventReader.mark(0);
-                    eventReader.replaceMark(0, composePluginRepositoryElementString(id, url)
-                            + "    </pluginRepositories>"
-                    );
-                    eventReader.clearMark(0);
-                    break;
-                }
-
-                path = stack.pop();
+    /**
+     * Checks if the pending edits change the document.
+     */
+    public boolean isModified() {
+        if (replacements.isEmpty() && injectedProperties.isEmpty() && requestedSections.isEmpty()) {
+            // no edits, the POM might not even have been read
+            return false;
+        }
+        if (!composeSectionReplacements().isEmpty()) {
+            return true;
+        }
+        for (Map.Entry<PomIndex.Range, String> replacement: replacements.entrySet()) {
+            PomIndex.Range range = replacement.getKey();
+            if (!replacement.getValue().contentEquals(content.subSequence(range.start, range.end))) {
+                return true;
             }
         }
-    }
-
-    public void injectProperty(String key, String version) throws XMLStreamException {
-        injectProperty(eventReader, key, version);
+        return false;
     }
 
     /**
-     * Writes the updated POM file.
+     * Applies the pending edits and writes the updated POM file.
+     * <p>
+     * The file is not touched if the edits don't change it. Otherwise, the content is written to a temporary file
+     * which then replaces the POM file, so that the POM file is never left partially written. If the POM file is a
+     * symbolic link, the link target is replaced.
+     *
+     * @return true if the file was written, false if there were no changes
      */
-    public void writePom() {
+    public boolean writePom() {
         assertOpen();
-        try (Writer writer = WriterFactory.newXmlWriter(project.getPom())) {
-            closed = true;
-            IOUtil.copy(content.toString(), writer);
-            eventReader.close();
+        closed = true;
+        if (!isModified()) {
+            return false;
+        }
+        applyPendingEdits();
+
+        Path tempFile = null;
+        try {
+            // a symlinked POM is replaced by its target, the link itself is kept
+            Path pomFile = project.getPom().toPath().toRealPath();
+            tempFile = Files.createTempFile(pomFile.getParent(), pomFile.getFileName().toString(), ".tmp");
+            copyPermissions(pomFile, tempFile);
+            try (Writer writer = WriterFactory.newXmlWriter(tempFile.toFile())) {
+                IOUtil.copy(content.toString(), writer);
+            }
+            try {
+                Files.move(tempFile, pomFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, pomFile, StandardCopyOption.REPLACE_EXISTING);
+            }
         } catch (IOException e) {
+            if (tempFile != null) {
+                tempFile.toFile().delete();
+            }
             throw new RuntimeException("Failed to write to the pom file", e);
-        } catch (XMLStreamException e) {
-            throw new RuntimeException("Couldn't close event reader", e);
+        }
+        return true;
+    }
+
+    /**
+     * Temporary files are created with owner-only permissions, the written file should keep the original ones.
+     */
+    private static void copyPermissions(Path source, Path target) throws IOException {
+        try {
+            Files.setPosixFilePermissions(target, Files.getPosixFilePermissions(source));
+        } catch (UnsupportedOperationException e) {
+            // not a POSIX file system
         }
     }
 
@@ -307,127 +272,183 @@ public class PomManipulator {
     }
 
     /**
-     * This method attempts to inject new dependency into at the end of the dependencyManagement section.
+     * Returns the text of given range of the document, including the pending replacement.
+     */
+    private String getCurrentText(PomIndex.Range range) {
+        String replacement = replacements.get(range);
+        return replacement != null ? replacement : content.substring(range.start, range.end);
+    }
+
+    /**
+     * Splices the pending replacements into the document.
      * <p>
-     * The dependencyManagement section must be already present in the POM.
+     * The result is the same as if the edits were applied one by one in the order in which they were recorded:
+     * injected elements are appended after the existing elements of their sections in the order of injection.
      */
-    static void injectManagedDependency(ModifiedPomXMLEventReader eventReader, ArtifactRef dependency,
-            Collection<ProjectRef> exclusions, String oldVersion) throws XMLStreamException {
-        eventReader.rewind();
-
-        Stack<String> stack = new Stack<>();
-        String path = "";
-
-        while (eventReader.hasNext()) {
-            XMLEvent event = eventReader.nextEvent();
-            if (event.isStartElement()) {
-                stack.push(path);
-                path = path + "/" + event.asStartElement().getName().getLocalPart();
-            } else if (event.isEndElement()) {
-                if (event.asEndElement().getName().getLocalPart().equals(DEPENDENCIES)
-                        && path.equals(DEPENDENCY_MANAGEMENT_DEPENDENCIES_PATH)) {
-                    eventReader.mark(0);
-                    eventReader.replaceMark(0, composeDependencyElementString(dependency, exclusions, oldVersion)
-                                    + "        </dependencies>"
-                    );
-                    eventReader.clearMark(0);
-                    return;
-                }
-
-                path = stack.pop();
-            }
+    private void applyPendingEdits() {
+        replacements.putAll(composeSectionReplacements());
+
+        // replacing from the end of the document keeps the offsets of the remaining ranges valid
+        List<Map.Entry<PomIndex.Range, String>> splices = new ArrayList<>(replacements.entrySet());
+        splices.sort(Comparator.comparing((Map.Entry<PomIndex.Range, String> e) -> e.getKey().start)
+                .thenComparing(e -> e.getKey().end)
+                .reversed());
+        for (Map.Entry<PomIndex.Range, String> splice: splices) {
+            content.replace(splice.getKey().start, splice.getKey().end, splice.getValue());
         }
     }
 
     /**
-     * Inserts dependencyManagement section if it's not already present.
+     * Translates the injected elements into replacements of the section end elements.
      */
-    static void injectDependencyManagementSection(ModifiedPomXMLEventReader eventReader) throws XMLStreamException {
-        eventReader.rewind();
-
-        while (eventReader.hasNext()) {
-            XMLEvent event = eventReader.nextEvent();
-            if (event.isStartElement()) {
-                if (event.asStartElement().getName().getLocalPart().equals(DEPENDENCY_MANAGEMENT)) {
-                    // dependency management is already present
-                    return;
-                }
-            } else if (event.isEndElement()) {
-                if (event.asEndElement().getName().getLocalPart().equals(PROJECT)) {
-                    eventReader.mark(0);
-                    eventReader.replaceMark(0, composeDependencyManagementElementString()
-                            + "</project>"
-                    );
-                    eventReader.clearMark(0);
-                    return;
-                }
+    private Map<PomIndex.Range, String> composeSectionReplacements() {
+        Map<PomIndex.Range, String> sectionReplacements = new HashMap<>();
+        if (!injectedProperties.isEmpty()) {
+            putSectionReplacement(sectionReplacements, PROPERTIES_PATH, composeInjectedPropertiesString());
+        }
+        if (!injectedManagedDependencies.isEmpty()) {
+            if (index().hasSection(DEPENDENCY_MANAGEMENT_DEPENDENCIES_PATH)) {
+                putSectionReplacement(sectionReplacements, DEPENDENCY_MANAGEMENT_DEPENDENCIES_PATH,
+                        composeInjectedManagedDependenciesString());
+            } else if (index().hasSection(DEPENDENCY_MANAGEMENT_PATH)) {
+                putSectionReplacement(sectionReplacements, DEPENDENCY_MANAGEMENT_PATH,
+                        composeInjectedDependenciesSectionString() + "    </dependencyManagement>");
             }
         }
-    }
+        if (!injectedRepositories.isEmpty()) {
+            putSectionReplacement(sectionReplacements, REPOSITORIES_PATH, composeInjectedRepositoriesString());
+        }
+        if (!injectedPluginRepositories.isEmpty()) {
+            putSectionReplacement(sectionReplacements, PLUGIN_REPOSITORIES_PATH,
+                    composeInjectedPluginRepositoriesString());
+        }
 
-    static void injectDependencyManagementDependenciesSection(ModifiedPomXMLEventReader eventReader)
-            throws XMLStreamException {
-        eventReader.rewind();
-
-        Stack<String> stack = new Stack<>();
-        String path = "";
-
-        while (eventReader.hasNext()) {
-            XMLEvent event = eventReader.nextEvent();
-            if (event.isStartElement()) {
-                if (event.asStartElement().getName().getLocalPart().equals(DEPENDENCIES)
-                        && path.equals(DEPENDENCY_MANAGEMENT_PATH)) {
-                    // dependencies section is already present
-                    return;
-                }
-
-                stack.push(path);
-                path = path + "/" + event.asStartElement().getName().getLocalPart();
-            } else if (event.isEndElement()) {
-                if (event.asEndElement().getName().getLocalPart().equals(DEPENDENCY_MANAGEMENT)) {
-                    eventReader.mark(0);
-                    eventReader.replaceMark(0, composeDependenciesElementString()
-                            + "    </dependencyManagement>"
-                    );
-                    eventReader.clearMark(0);
-                    return;
-                }
-
-                path = stack.pop();
+        StringBuilder sections = new StringBuilder();
+        for (String section: requestedSections) {
+            if (!index().hasSection(section)) {
+                sections.append(composeInjectedSectionString(section));
             }
         }
+        if (sections.length() > 0) {
+            putSectionReplacement(sectionReplacements, PROJECT_PATH, sections + "</project>");
+        }
+        return sectionReplacements;
+    }
+
+    private void putSectionReplacement(Map<PomIndex.Range, String> sectionReplacements, String sectionPath,
+            String replacement) {
+        PomIndex.Range endTag = index().getSectionEndTag(sectionPath);
+        if (endTag != null) {
+            sectionReplacements.put(endTag, replacement);
+            return;
+        }
+        PomIndex.Range emptySectionEnd = index().getEmptySectionEnd(sectionPath);
+        if (emptySectionEnd != null) {
+            // expands the empty element into a start and an end element, the end element is indented as the start one
+            sectionReplacements.put(emptySectionEnd, ">\n" + lineIndentation(emptySectionEnd.start) + replacement);
+        }
     }
 
     /**
-     * This method attempts to inject new property at the end of the properties section.
-     * <p>
-     * The properties section must be already present in the POM.
+     * Returns the whitespace preceding the first element on the line containing given offset.
+     */
+    private String lineIndentation(int offset) {
+        int lineStart = content.lastIndexOf("\n", offset) + 1;
+        int end = lineStart;
+        while (end < offset && Character.isWhitespace(content.charAt(end))) {
+            end++;
+        }
+        return content.substring(lineStart, end);
+    }
+
+    private static boolean isVersionOverlap(String oldVersion, String currentVersion) {
+        String compressedOldVersion = StringUtils.deleteWhitespace(oldVersion);
+        String compressedCurrentVersion = StringUtils.deleteWhitespace(currentVersion);
+        try {
+            return PomHelper.isVersionOverlap(compressedOldVersion, compressedCurrentVersion);
+        } catch (InvalidVersionSpecificationException e) {
+            return compressedOldVersion.equals(compressedCurrentVersion);
+        }
+    }
+
+    /**
+     * Properties that can be referenced in dependency coordinates: the model properties plus the project and parent
+     * coordinates, same as in {@link PomHelper#setDependencyVersion}.
      */
-    static void injectProperty(ModifiedPomXMLEventReader eventReader, String key, String version) throws XMLStreamException {
-        eventReader.rewind();
-
-        Stack<String> stack = new Stack<>();
-        String path = "";
-
-        while (eventReader.hasNext()) {
-            XMLEvent event = eventReader.nextEvent();
-            if (event.isStartElement()) {
-                stack.push(path);
-                path = path + "/" + event.asStartElement().getName().getLocalPart();
-            } else if (event.isEndElement()) {
-                if (event.asEndElement().getName().getLocalPart().equals("properties")
-                        && path.equals("/project/properties")) {
-                    eventReader.mark(0);
-                    eventReader.replaceMark(0, String.format("    <%s>%s</%s>\n", key, version, key)
-                            + "    </properties>"
-                    );
-                    eventReader.clearMark(0);
-                    break;
-                }
-
-                path = stack.pop();
+    private static Map<String, String> getImplicitProperties(Model model) {
+        Map<String, String> properties = new HashMap<>();
+        model.getProperties().forEach((key, value) -> properties.put((String) key, (String) value));
+        if (model.getParent() != null) {
+            putIfNotNull(properties, "project.parent.groupId", model.getParent().getGroupId());
+            putIfNotNull(properties, "project.parent.artifactId", model.getParent().getArtifactId());
+            putIfNotNull(properties, "project.parent.version", model.getParent().getVersion());
+        }
+        putIfNotNull(properties, "project.groupId", model.getGroupId());
+        putIfNotNull(properties, "project.artifactId", model.getArtifactId());
+        putIfNotNull(properties, "project.version", model.getVersion());
+        for (String key: List.of("groupId", "artifactId", "version")) {
+            if (!properties.containsKey("project." + key) && properties.containsKey("project.parent." + key)) {
+                properties.put("project." + key, properties.get("project.parent." + key));
             }
         }
+        return properties;
+    }
+
+    private static void putIfNotNull(Map<String, String> map, String key, String value) {
+        if (value != null) {
+            map.put(key, value.trim());
+        }
+    }
+
+    private String composeInjectedSectionString(String section) {
+        switch (section) {
+            case DEPENDENCY_MANAGEMENT_PATH:
+                return composeDependencyManagementElementString()
+                        .replace("</dependencyManagement>", composeInjectedDependenciesSectionString()
+                                + "    </dependencyManagement>");
+            case REPOSITORIES_PATH:
+                return composeRepositoriesElementString()
+                        .replace("</repositories>", composeInjectedRepositoriesString());
+            case PLUGIN_REPOSITORIES_PATH:
+                return composePluginRepositoriesElementString()
+                        .replace("</pluginRepositories>", composeInjectedPluginRepositoriesString());
+            default:
+                throw new IllegalArgumentException(section);
+        }
+    }
+
+    private String composeInjectedDependenciesSectionString() {
+        return composeDependenciesElementString().replace("</dependencies>", composeInjectedManagedDependenciesString());
+    }
+
+    // The following methods compose the replacement of the section end element. Each injected element is followed by
+    // the indentation of the end element, so that the output matches injecting the elements one by one.
+
+    private String composeInjectedManagedDependenciesString() {
+        return joinWithIndentation(injectedManagedDependencies, "        ") + "</dependencies>";
+    }
+
+    private String composeInjectedRepositoriesString() {
+        return joinWithIndentation(injectedRepositories, "    ") + "</repositories>";
+    }
+
+    private String composeInjectedPluginRepositoriesString() {
+        return joinWithIndentation(injectedPluginRepositories, "    ") + "</pluginRepositories>";
+    }
+
+    private String composeInjectedPropertiesString() {
+        List<String> properties = injectedProperties.stream()
+                .map(p -> String.format("    <%s>%s</%s>\n", p.name, p.value, p.name))
+                .collect(Collectors.toList());
+        return joinWithIndentation(properties, "    ") + "</properties>";
+    }
+
+    private static String joinWithIndentation(List<String> elements, String indentation) {
+        StringBuilder sb = new StringBuilder();
+        for (String element: elements) {
+            sb.append(element).append(indentation);
+        }
+        return sb.toString();
     }
 
     private static String composeDependencyManagementElementString() {
@@ -510,4 +531,13 @@ public class PomManipulator {
         return sb.toString();
     }
 
+    private static final class InjectedProperty {
+        private final String name;
+        private String value;
+
+        InjectedProperty(String name, String value) {
+            this.name = name;
+            this.value = value;
+        }
+    }
 }
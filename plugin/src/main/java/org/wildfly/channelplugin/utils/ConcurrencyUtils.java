@@ -0,0 +1,48 @@
+package org.wildfly.channelplugin.utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Utility class for running plugin tasks concurrently.
+ */
+public final class ConcurrencyUtils {
+
+    private static final String THREAD_NAME_PREFIX = "wildfly-channel-worker-";
+
+    private ConcurrencyUtils() {
+    }
+
+    /**
+     * Creates an executor that runs at most given number of tasks at the same time.
+     * <p>
+     * Virtual threads are used when the running JVM supports them, platform daemon threads otherwise.
+     *
+     * @param parallelism maximum number of concurrently running tasks
+     */
+    public static ExecutorService newBoundedExecutor(int parallelism) {
+        return Executors.newFixedThreadPool(Math.max(1, parallelism), createThreadFactory());
+    }
+
+    private static ThreadFactory createThreadFactory() {
+        try {
+            // Thread.ofVirtual().name(prefix, 0).factory() - called reflectively, the plugin is compiled for Java 11
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, THREAD_NAME_PREFIX, 0L);
+            Method factoryMethod = builderClass.getMethod("factory");
+            return (ThreadFactory) factoryMethod.invoke(builder);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            // virtual threads are not available in this JVM
+            AtomicInteger counter = new AtomicInteger();
+            return runnable -> {
+                Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + counter.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+}
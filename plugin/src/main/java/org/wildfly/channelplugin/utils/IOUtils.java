@@ -2,11 +2,27 @@ package org.wildfly.channelplugin.utils;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public final class IOUtils {
+
+    static final String EVICTION_LOCK_FILE = ".eviction.lock";
+    static final long EVICTION_GRACE_PERIOD_MILLIS = TimeUnit.HOURS.toMillis(1);
+
     private IOUtils() {
     }
 
@@ -24,4 +40,111 @@ public final class IOUtils {
         }));
         return tempDirectory.toString();
     }
+
+    /**
+     * Evicts least recently used files from given directory, until the total size of the files in the directory
+     * doesn't exceed given limit. Files are ordered by the later of their last access and last modification times.
+     * <p>
+     * The directory can be shared by several concurrently running builds. The eviction is serialized by a lock file in
+     * the directory - if another process is evicting at the same time, nothing is evicted. Files used during the last
+     * {@link #EVICTION_GRACE_PERIOD_MILLIS} milliseconds are never evicted, as a concurrently running build may be using
+     * them, and files or directories removed or populated by another process during the eviction are skipped.
+     *
+     * @param directory cache directory
+     * @param maxSize maximum total size of files in bytes
+     * @return number of deleted files
+     */
+    public static int evictLeastRecentlyUsed(Path directory, long maxSize) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        Path lockFile = directory.resolve(EVICTION_LOCK_FILE);
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock lock = tryLock(channel)) {
+            if (lock == null) {
+                // another process is evicting the cache right now
+                return 0;
+            }
+            return evict(directory, lockFile, maxSize, System.currentTimeMillis() - EVICTION_GRACE_PERIOD_MILLIS);
+        }
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // the lock is held within this JVM
+            return null;
+        }
+    }
+
+    private static int evict(Path directory, Path lockFile, long maxSize, long usedBefore) throws IOException {
+        List<CachedFile> files = new ArrayList<>();
+        long[] totalSize = new long[1];
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile() && !file.equals(lockFile)) {
+                    long lastUsed = Math.max(attributes.lastAccessTime().toMillis(),
+                            attributes.lastModifiedTime().toMillis());
+                    files.add(new CachedFile(file, attributes.size(), lastUsed));
+                    totalSize[0] += attributes.size();
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+                if (e instanceof NoSuchFileException) {
+                    // removed by another process
+                    return FileVisitResult.CONTINUE;
+                }
+                throw e;
+            }
+        });
+        if (totalSize[0] <= maxSize) {
+            return 0;
+        }
+
+        files.sort(Comparator.comparingLong(f -> f.lastUsed));
+        int deleted = 0;
+        for (CachedFile file: files) {
+            if (totalSize[0] <= maxSize || file.lastUsed >= usedBefore) {
+                break;
+            }
+            if (Files.deleteIfExists(file.path)) {
+                deleted++;
+            }
+            totalSize[0] -= file.size;
+            deleteEmptyParents(directory, file.path.getParent());
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes empty directories on the path from given directory up to the root, on a best-effort basis.
+     */
+    private static void deleteEmptyParents(Path root, Path dir) throws IOException {
+        while (dir != null && !dir.equals(root) && dir.startsWith(root)) {
+            try {
+                Files.delete(dir);
+            } catch (DirectoryNotEmptyException | NoSuchFileException e) {
+                // still in use, or removed by another process
+                return;
+            }
+            dir = dir.getParent();
+        }
+    }
+
+    private static final class CachedFile {
+        private final Path path;
+        private final long size;
+        private final long lastUsed;
+
+        private CachedFile(Path path, long size, long lastUsed) {
+            this.path = path;
+            this.size = size;
+            this.lastUsed = lastUsed;
+        }
+    }
 }
@@ -0,0 +1,134 @@
+package org.wildfly.channelplugin.utils;
+
+import org.wildfly.channel.version.VersionMatcher;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Version string pre-parsed into tokens, so that it can be compared with other versions without re-scanning the
+ * string. The ordering is identical to {@link VersionMatcher#COMPARATOR}, including the returned values.
+ * <p>
+ * A version is split into maximal runs of digits and single other characters, e.g. "1.2.3.Final" becomes
+ * [1, '.', 2, '.', 3, '.', 'F', 'i', 'n', 'a', 'l']. Versions that the tokens can't represent faithfully (digit runs
+ * not fitting into a long, invalid epochs) are compared by the {@link VersionMatcher#COMPARATOR} itself.
+ * <p>
+ * Instances are interned in a bounded cache, so each distinct version string is only parsed once in a typical run.
+ */
+final class ParsedVersion implements Comparable<ParsedVersion> {
+
+    private static final int MAX_CACHE_SIZE = 16_384;
+    private static final Map<String, ParsedVersion> CACHE = new ConcurrentHashMap<>();
+
+    private final String version;
+    private final boolean tokenized;
+    // index where the comparison starts, the position of the epoch separator if there is one
+    private final int start;
+    private final int epoch;
+    // length of a digit run token, or 0 for a character token
+    private final int[] lengths;
+    // numeric value of a digit run token, or the character of a character token
+    private final long[] values;
+
+    private ParsedVersion(String version, boolean tokenized, int start, int epoch, int[] lengths, long[] values) {
+        this.version = version;
+        this.tokenized = tokenized;
+        this.start = start;
+        this.epoch = epoch;
+        this.lengths = lengths;
+        this.values = values;
+    }
+
+    static ParsedVersion of(String version) {
+        ParsedVersion parsed = CACHE.get(version);
+        if (parsed == null) {
+            parsed = parse(version);
+            if (CACHE.size() >= MAX_CACHE_SIZE) {
+                CACHE.clear();
+            }
+            CACHE.put(version, parsed);
+        }
+        return parsed;
+    }
+
+    static ParsedVersion parse(String version) {
+        int start = 0;
+        int epoch = 0;
+        int separator = version.indexOf(':');
+        if (separator != -1) {
+            try {
+                epoch = Integer.parseInt(version.substring(0, separator));
+            } catch (NumberFormatException e) {
+                return new ParsedVersion(version, false, 0, 0, null, null);
+            }
+            start = separator;
+        }
+
+        int length = version.length();
+        int[] lengths = new int[length - start];
+        long[] values = new long[length - start];
+        int count = 0;
+        int i = start;
+        while (i < length) {
+            char c = version.charAt(i);
+            if (Character.isDigit(c)) {
+                int j = i;
+                while (j < length && Character.isDigit(version.charAt(j))) {
+                    j++;
+                }
+                try {
+                    values[count] = Long.parseLong(version.substring(i, j));
+                } catch (NumberFormatException e) {
+                    return new ParsedVersion(version, false, 0, 0, null, null);
+                }
+                lengths[count] = j - i;
+                i = j;
+            } else {
+                values[count] = c;
+                i++;
+            }
+            count++;
+        }
+        if (count < lengths.length) {
+            lengths = Arrays.copyOf(lengths, count);
+            values = Arrays.copyOf(values, count);
+        }
+        return new ParsedVersion(version, true, start, epoch, lengths, values);
+    }
+
+    @Override
+    public int compareTo(ParsedVersion other) {
+        if (!tokenized || !other.tokenized || start != other.start) {
+            // the scanning positions of the two versions would not be aligned
+            return VersionMatcher.COMPARATOR.compare(version, other.version);
+        }
+        if (epoch != other.epoch) {
+            return epoch - other.epoch;
+        }
+        int count = Math.min(lengths.length, other.lengths.length);
+        for (int k = 0; k < count; k++) {
+            int length1 = lengths[k];
+            int length2 = other.lengths[k];
+            if (length1 > 0 || length2 > 0) {
+                // at least one of the tokens is a digit run, a character counts as an empty run with value 0
+                long n1 = length1 > 0 ? values[k] : 0;
+                long n2 = length2 > 0 ? other.values[k] : 0;
+                if (n1 != n2) {
+                    return (int) (n1 - n2);
+                }
+                if (length1 != length2) {
+                    return length2 - length1;
+                }
+            } else if (values[k] != other.values[k]) {
+                return (char) values[k] - (char) other.values[k];
+            }
+        }
+        return version.length() - other.version.length();
+    }
+
+    @Override
+    public String toString() {
+        return version;
+    }
+}
@@ -0,0 +1,94 @@
+package org.wildfly.channelplugin.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Matches groupId and artifactId pairs against a set of "groupId:artifactId" patterns. A "*" in a pattern matches any
+ * sequence of characters, e.g. "org.wildfly.core:*" or "org.jboss.*:*-parent".
+ * <p>
+ * Exact patterns and whole-group patterns ("groupId:*") are kept in hashed sets, so matching them doesn't allocate.
+ * Only the remaining glob patterns are evaluated one by one.
+ */
+public final class ProjectRefMatcher {
+
+    private static final String WILDCARD = "*";
+
+    private final Map<String, Set<String>> artifactIds = new HashMap<>();
+    private final Set<String> groupIds = new HashSet<>();
+    private final List<Pattern[]> globs = new ArrayList<>();
+
+    private ProjectRefMatcher() {
+    }
+
+    /**
+     * @param patterns "groupId:artifactId" patterns, may be null
+     * @param invalidPatternHandler receives patterns that are not in the "groupId:artifactId" format, these are skipped
+     */
+    public static ProjectRefMatcher compile(Collection<String> patterns, Consumer<String> invalidPatternHandler) {
+        ProjectRefMatcher matcher = new ProjectRefMatcher();
+        if (patterns != null) {
+            for (String pattern: patterns) {
+                if (!matcher.add(pattern)) {
+                    invalidPatternHandler.accept(pattern);
+                }
+            }
+        }
+        return matcher;
+    }
+
+    private boolean add(String pattern) {
+        String[] split = pattern.trim().split(":");
+        if (split.length != 2 || split[0].isEmpty() || split[1].isEmpty()) {
+            return false;
+        }
+        String groupId = split[0];
+        String artifactId = split[1];
+        if (!groupId.contains(WILDCARD)) {
+            if (artifactId.equals(WILDCARD)) {
+                groupIds.add(groupId);
+                return true;
+            } else if (!artifactId.contains(WILDCARD)) {
+                artifactIds.computeIfAbsent(groupId, g -> new HashSet<>()).add(artifactId);
+                return true;
+            }
+        }
+        globs.add(new Pattern[] {toRegex(groupId), toRegex(artifactId)});
+        return true;
+    }
+
+    public boolean matches(String groupId, String artifactId) {
+        if (groupIds.contains(groupId)) {
+            return true;
+        }
+        Set<String> groupArtifactIds = artifactIds.get(groupId);
+        if (groupArtifactIds != null && groupArtifactIds.contains(artifactId)) {
+            return true;
+        }
+        for (Pattern[] glob: globs) {
+            if (glob[0].matcher(groupId).matches() && glob[1].matcher(artifactId).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Pattern toRegex(String glob) {
+        StringBuilder sb = new StringBuilder();
+        int start = 0;
+        int wildcard;
+        while ((wildcard = glob.indexOf(WILDCARD, start)) >= 0) {
+            sb.append(Pattern.quote(glob.substring(start, wildcard))).append(".*");
+            start = wildcard + 1;
+        }
+        sb.append(Pattern.quote(glob.substring(start)));
+        return Pattern.compile(sb.toString());
+    }
+}
@@ -0,0 +1,65 @@
+package org.wildfly.channelplugin.utils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Matches property names against a set of names and a set of name prefixes.
+ * <p>
+ * The prefixes are kept in a trie, so a name is matched in a single pass over its characters, no matter how many
+ * prefixes there are.
+ */
+public final class PropertyNameMatcher {
+
+    private final Set<String> names = new HashSet<>();
+    private final Node prefixes = new Node();
+
+    private PropertyNameMatcher() {
+    }
+
+    /**
+     * @param names property names, may be null
+     * @param prefixes property name prefixes, may be null
+     */
+    public static PropertyNameMatcher compile(Collection<String> names, Collection<String> prefixes) {
+        PropertyNameMatcher matcher = new PropertyNameMatcher();
+        if (names != null) {
+            matcher.names.addAll(names);
+        }
+        if (prefixes != null) {
+            for (String prefix: prefixes) {
+                Node node = matcher.prefixes;
+                for (int i = 0; i < prefix.length(); i++) {
+                    node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Node());
+                }
+                node.terminal = true;
+            }
+        }
+        return matcher;
+    }
+
+    public boolean matches(String name) {
+        if (names.contains(name)) {
+            return true;
+        }
+        Node node = prefixes;
+        for (int i = 0; !node.terminal; i++) {
+            if (i == name.length()) {
+                return false;
+            }
+            node = node.children.get(name.charAt(i));
+            if (node == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private boolean terminal;
+    }
+}
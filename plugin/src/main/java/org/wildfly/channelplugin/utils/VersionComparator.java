@@ -4,10 +4,14 @@ import org.wildfly.channel.version.VersionMatcher;
 
 import java.util.Comparator;
 
+/**
+ * Compares versions the same way as {@link VersionMatcher#COMPARATOR}. The versions are parsed once per distinct
+ * version string and cached, see {@link ParsedVersion}.
+ */
 public class VersionComparator implements Comparator<String> {
 
     @Override
     public int compare(String v1, String v2) {
-        return VersionMatcher.COMPARATOR.compare(v1, v2);
+        return ParsedVersion.of(v1).compareTo(ParsedVersion.of(v2));
     }
 }
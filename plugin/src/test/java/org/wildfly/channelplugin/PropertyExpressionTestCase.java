@@ -0,0 +1,36 @@
+package org.wildfly.channelplugin;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PropertyExpressionTestCase {
+
+    @Test
+    public void testParse() {
+        assertThat(PropertyExpression.parse("1.0.Final").isLiteral()).isTrue();
+        assertThat(PropertyExpression.parse("${v}").getReferences()).containsExactly("v");
+        assertThat(PropertyExpression.parse("${major}.${minor}.Final").getReferences())
+                .containsExactly("major", "minor");
+        assertThat(PropertyExpression.parse("${v}-redhat-${build}").getReferences()).containsExactly("v", "build");
+        // unterminated reference is a literal
+        assertThat(PropertyExpression.parse("1.0-${v").isLiteral()).isTrue();
+        assertThat(PropertyExpression.parse("${a}${b").getReferences()).containsExactly("a");
+    }
+
+    @Test
+    public void testEvaluate() {
+        Map<String, String> properties = Map.of("major", "1", "minor", "2", "v", "1.2.Final", "build", "00001");
+
+        assertThat(PropertyExpression.parse("1.0.Final").evaluate(properties::get)).isEqualTo("1.0.Final");
+        assertThat(PropertyExpression.parse("${major}.${minor}.Final").evaluate(properties::get))
+                .isEqualTo("1.2.Final");
+        assertThat(PropertyExpression.parse("${v}-redhat-${build}").evaluate(properties::get))
+                .isEqualTo("1.2.Final-redhat-00001");
+        assertThat(PropertyExpression.parse("${major}${minor}").evaluate(properties::get)).isEqualTo("12");
+        assertThat(PropertyExpression.parse("${a}${b").evaluate(name -> "x")).isEqualTo("x${b");
+        assertThat(PropertyExpression.parse("${major}.${missing}").evaluate(properties::get)).isNull();
+    }
+}
@@ -0,0 +1,97 @@
+package org.wildfly.channelplugin;
+
+import java.util.Properties;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.commonjava.maven.ext.common.model.Project;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PropertyResolutionTableTestCase {
+
+    @Test
+    public void testModuleProperties() throws Exception {
+        Model parentModel = new Model();
+        parentModel.setVersion("version");
+        parentModel.setProperties(properties("version.a", "1.0", "version.b", "${version.a}"));
+        Project parent = new Project(parentModel);
+
+        Model model = new Model();
+        model.setVersion("version");
+        model.setProperties(properties("version.c", "${version.b}"));
+        Project module = new Project(model);
+        module.setProjectParent(parent);
+
+        PropertyResolutionTable table = new PropertyResolutionTable(null);
+
+        PropertyRef resolved = table.followProperties(module, "version.c");
+        assertThat(resolved.getModule()).isSameAs(parent);
+        assertThat(resolved.getPropertyName()).isEqualTo("version.a");
+        // subsequent lookups are served from the table
+        assertThat(table.followProperties(module, "version.c")).isSameAs(resolved);
+        assertThat(table.followProperties(parent, "version.b")).isEqualTo(resolved);
+
+        assertThat(table.followProperties(module, "missing")).isNull();
+        assertThat(table.followProperties(module, "missing")).isNull();
+    }
+
+    @Test
+    public void testExternalProperties() {
+        Model parentModel = new Model();
+        parentModel.setVersion("version");
+        parentModel.setProperties(properties("version.a", "1.0", "version.b", "${version.a}"));
+        MavenProject project = new MavenProject();
+        project.setParent(new MavenProject(parentModel));
+
+        PropertyResolutionTable table = new PropertyResolutionTable(project);
+
+        ExternalProperty resolved = table.resolveExternalProperty("version.b");
+        assertThat(resolved).isEqualTo(new ExternalProperty("version.a", "1.0"));
+        assertThat(table.resolveExternalProperty("version.b")).isSameAs(resolved);
+        assertThat(table.resolveExternalProperty("missing")).isNull();
+    }
+
+    @Test
+    public void testInterpolation() throws Exception {
+        Model externalModel = new Model();
+        externalModel.setVersion("version");
+        externalModel.setProperties(properties("build", "00001", "qualifier", "Final"));
+        MavenProject project = new MavenProject();
+        project.setParent(new MavenProject(externalModel));
+
+        Model parentModel = new Model();
+        parentModel.setVersion("version");
+        parentModel.setProperties(properties("major", "1", "minor", "2",
+                "version.a", "${major}.${minor}.${qualifier}", "version.b", "${version.a}-redhat-${build}"));
+        Project parent = new Project(parentModel);
+
+        Model model = new Model();
+        model.setVersion("version");
+        model.setProperties(properties("minor", "3", "loop.a", "${loop.b}", "loop.b", "1.${loop.a}"));
+        Project module = new Project(model);
+        module.setProjectParent(parent);
+
+        PropertyResolutionTable table = new PropertyResolutionTable(project);
+
+        assertThat(table.interpolate(parent, "1.0")).isEqualTo("1.0");
+        assertThat(table.interpolate(parent, "${version.a}")).isEqualTo("1.2.Final");
+        assertThat(table.interpolate(parent, "${version.b}")).isEqualTo("1.2.Final-redhat-00001");
+        // the module overrides a property referenced from the parent
+        assertThat(table.interpolate(module, "${version.b}")).isEqualTo("1.3.Final-redhat-00001");
+        assertThat(table.interpolate(module, "${major}.${minor}.${qualifier}")).isEqualTo("1.3.Final");
+
+        assertThat(table.interpolate(module, "${major}.${missing}")).isNull();
+        assertThat(table.interpolate(module, "${loop.a}")).isNull();
+        assertThat(table.interpolate(module, "${loop.b}")).isNull();
+    }
+
+    private static Properties properties(String... namesAndValues) {
+        Properties properties = new Properties();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            properties.put(namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,61 @@
+package org.wildfly.channelplugin;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.commonjava.maven.ext.common.model.Project;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PropertyUsageIndexTestCase {
+
+    @Test
+    public void testConflictingUsages() throws Exception {
+        Project module1 = module("module1");
+        Project module2 = module("module2");
+        PropertyRef shared = new PropertyRef(module1, "version.shared");
+        PropertyRef other = new PropertyRef(null, "version.other");
+
+        PropertyUsageIndex index = new PropertyUsageIndex();
+        index.add(shared, module1, dependency("a"), "1.0", "1.1");
+        index.add(other, module1, dependency("b"), "1.0", "2.0");
+        index.add(shared, module2, dependency("c"), "1.0", "1.2");
+        index.add(shared, module2, dependency("d"), "1.0", "1.1");
+
+        assertThat(index.getProperties()).containsExactly(shared, other);
+        assertThat(index.getUsages(shared)).extracting(u -> u.getDependency().getArtifactId())
+                .containsExactly("a", "c", "d");
+
+        // the first usage in the reactor order decides the version of the property
+        assertThat(index.getPrimaryUsage(shared).getModule()).isSameAs(module1);
+        assertThat(index.getPrimaryUsage(shared).getChannelVersion()).isEqualTo("1.1");
+        assertThat(index.getConflictingUsages(shared)).singleElement()
+                .satisfies(usage -> {
+                    assertThat(usage.getModule()).isSameAs(module2);
+                    assertThat(usage.getDependency().getArtifactId()).isEqualTo("c");
+                    assertThat(usage.getChannelVersion()).isEqualTo("1.2");
+                });
+        assertThat(index.getConflictingUsages(other)).isEmpty();
+
+        PropertyRef missing = new PropertyRef(null, "missing");
+        assertThat(index.getPrimaryUsage(missing)).isNull();
+        assertThat(index.getUsages(missing)).isEmpty();
+        assertThat(index.getConflictingUsages(missing)).isEmpty();
+    }
+
+    private static Project module(String artifactId) throws Exception {
+        Model model = new Model();
+        model.setGroupId("org.test");
+        model.setArtifactId(artifactId);
+        model.setVersion("1.0");
+        return new Project(model);
+    }
+
+    private static Dependency dependency(String artifactId) {
+        Dependency dependency = new Dependency();
+        dependency.setGroupId("org.test");
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion("${version." + artifactId + "}");
+        return dependency;
+    }
+}
@@ -0,0 +1,134 @@
+package org.wildfly.channelplugin;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TransitiveDependenciesTestCase {
+
+    private final TransitiveDependencies transitiveDependencies = new TransitiveDependencies();
+
+    @Test
+    public void testNewArtifact() {
+        ArtifactRef artifact = new SimpleArtifactRef("org.example", "my-artifact", "1.0.0", "jar", null);
+        Collection<ProjectRef> exclusions = Set.of(new SimpleProjectRef("org.example", "excluded"));
+
+        transitiveDependencies.addOrUpdate(artifact, exclusions);
+
+        // Verify artifact was added
+        assertThat(transitiveDependencies.getArtifacts()).containsOnlyKeys(artifact);
+        assertThat(transitiveDependencies.getArtifacts().get(artifact)).isEqualTo(exclusions);
+    }
+
+    @Test
+    public void testHigherVersionReplacesLower() {
+        ArtifactRef artifact1 = new SimpleArtifactRef("org.example", "my-artifact", "1.0.0", "jar", null);
+        ArtifactRef artifact2 = new SimpleArtifactRef("org.example", "my-artifact", "2.0.0", "jar", null);
+        Collection<ProjectRef> exclusions2 = Set.of(new SimpleProjectRef("org.example", "excluded"));
+
+        transitiveDependencies.addOrUpdate(artifact1, Collections.emptyList());
+        transitiveDependencies.addOrUpdate(artifact2, exclusions2);
+
+        // Verify only version 2.0.0 remains, with its own exclusions
+        assertThat(transitiveDependencies.getArtifacts()).containsOnlyKeys(artifact2);
+        assertThat(transitiveDependencies.getArtifacts().get(artifact2)).isEqualTo(exclusions2);
+    }
+
+    @Test
+    public void testLowerOrSameVersionDoesNotReplace() {
+        ArtifactRef artifact1 = new SimpleArtifactRef("org.example", "my-artifact", "2.0.0", "jar", null);
+        ArtifactRef artifact2 = new SimpleArtifactRef("org.example", "my-artifact", "1.0.0", "jar", null);
+        Collection<ProjectRef> exclusions1 = Collections.emptyList();
+
+        transitiveDependencies.addOrUpdate(artifact1, exclusions1);
+        transitiveDependencies.addOrUpdate(artifact2, Collections.emptyList());
+        transitiveDependencies.addOrUpdate(artifact1, Set.of(new SimpleProjectRef("org.example", "excluded")));
+
+        // Verify version 2.0.0 remains, with the exclusions it was first recorded with
+        assertThat(transitiveDependencies.getArtifacts()).containsOnlyKeys(artifact1);
+        assertThat(transitiveDependencies.getArtifacts().get(artifact1)).isEqualTo(exclusions1);
+    }
+
+    @Test
+    public void testDifferentClassifiersCoexist() {
+        ArtifactRef artifact1 = new SimpleArtifactRef("org.example", "my-artifact", "1.0.0", "jar", null);
+        ArtifactRef artifact2 = new SimpleArtifactRef("org.example", "my-artifact", "1.0.0", "jar", "tests");
+        ArtifactRef artifact3 = new SimpleArtifactRef("org.example", "my-artifact", "1.0.0", "jar", "sources");
+
+        transitiveDependencies.addOrUpdate(artifact3, Collections.emptyList());
+        transitiveDependencies.addOrUpdate(artifact2, Collections.emptyList());
+        transitiveDependencies.addOrUpdate(artifact1, Collections.emptyList());
+
+        // Verify all three coexist, ordered by the classifier
+        assertThat(transitiveDependencies.getArtifacts().keySet()).containsExactly(artifact1, artifact3, artifact2);
+    }
+
+    @Test
+    public void testClassifierVersionUpgrade() {
+        // Same G:A:C but different versions
+        ArtifactRef testsV1 = new SimpleArtifactRef("org.example", "my-artifact", "1.0.0", "jar", "tests");
+        ArtifactRef testsV2 = new SimpleArtifactRef("org.example", "my-artifact", "2.0.0", "jar", "tests");
+        ArtifactRef mainV1 = new SimpleArtifactRef("org.example", "my-artifact", "1.0.0", "jar", null);
+
+        transitiveDependencies.addOrUpdate(testsV1, Collections.emptyList());
+        transitiveDependencies.addOrUpdate(mainV1, Collections.emptyList());
+        transitiveDependencies.addOrUpdate(testsV2, Collections.emptyList());
+
+        // Verify tests v2.0.0 replaced v1.0.0, but main v1.0.0 remains
+        assertThat(transitiveDependencies.getArtifacts()).containsOnlyKeys(mainV1, testsV2);
+    }
+
+    @Test
+    public void testTypeIsNotPartOfTheKey() {
+        ArtifactRef jar = new SimpleArtifactRef("org.example", "my-artifact", "1.0.0", "jar", null);
+        ArtifactRef pom = new SimpleArtifactRef("org.example", "my-artifact", "2.0.0", "pom", null);
+
+        transitiveDependencies.addOrUpdate(jar, Collections.emptyList());
+        transitiveDependencies.addOrUpdate(pom, Collections.emptyList());
+
+        assertThat(transitiveDependencies.getArtifacts()).containsOnlyKeys(pom);
+    }
+
+    @Test
+    public void testArtifactsAreOrdered() {
+        ArtifactRef a = new SimpleArtifactRef("org.a", "artifact", "1.0.0", "jar", null);
+        ArtifactRef b1 = new SimpleArtifactRef("org.b", "artifact", "1.0.0", "jar", null);
+        ArtifactRef b2 = new SimpleArtifactRef("org.b", "other", "1.0.0", "jar", null);
+        ArtifactRef c = new SimpleArtifactRef("org.c", "artifact", "1.0.0", "jar", null);
+
+        for (ArtifactRef artifact: List.of(c, b2, a, b1)) {
+            transitiveDependencies.addOrUpdate(artifact, Collections.emptyList());
+        }
+
+        assertThat(transitiveDependencies.getArtifacts().keySet()).containsExactly(a, b1, b2, c);
+    }
+
+    @Test
+    public void testManyNodes() {
+        // 50k graph nodes: 10k distinct artifacts, each seen in 5 versions
+        int artifacts = 10_000;
+        int versions = 5;
+        for (int v = 0; v < versions; v++) {
+            for (int i = 0; i < artifacts; i++) {
+                // visit the versions out of order
+                String version = "1.0." + ((v + i) % versions);
+                transitiveDependencies.addOrUpdate(
+                        new SimpleArtifactRef("org.example", "artifact-" + i, version, "jar", null),
+                        Collections.emptyList());
+            }
+        }
+
+        assertThat(transitiveDependencies.getArtifacts()).hasSize(artifacts);
+        assertThat(transitiveDependencies.getArtifacts().keySet())
+                .allMatch(artifact -> artifact.getVersionString().equals("1.0." + (versions - 1)));
+    }
+}
@@ -0,0 +1,54 @@
+package org.wildfly.channelplugin;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.graph.DefaultDependencyNode;
+import org.eclipse.aether.graph.Dependency;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TransitiveDependencyVisitorTestCase {
+
+    @Test
+    public void testNodesAreFilteredAndDeduplicated() {
+        DefaultDependencyNode root = new DefaultDependencyNode(new DefaultArtifact("org.test:module:1.0"));
+        DefaultDependencyNode a = node("a", "compile");
+        DefaultDependencyNode b = node("b", "compile");
+        DefaultDependencyNode c = node("c", "test");
+        DefaultDependencyNode d = node("d", "compile");
+        DefaultDependencyNode b2 = node("b", "compile");
+        DefaultDependencyNode module = node("other-module", "compile");
+        DefaultDependencyNode e = node("e", "compile");
+        root.setChildren(List.of(a, b2, module));
+        a.setChildren(List.of(b, c));
+        c.setChildren(List.of(d));
+        module.setChildren(List.of(e));
+
+        Set<ProjectRef> bExclusions = Set.of(new SimpleProjectRef("org.test", "excluded"));
+        TransitiveDependencyVisitor visitor = new TransitiveDependencyVisitor(
+                (artifact, scope) -> !"test".equals(scope) && !"other-module".equals(artifact.getArtifactId()),
+                (artifact, scope) -> !"a".equals(artifact.getArtifactId()),
+                Map.of(new SimpleProjectRef("org.test", "b"), bExclusions));
+        root.accept(visitor);
+
+        // "a" is filtered out but its dependencies are visited, subtrees of "c" and "other-module" are not visited
+        assertThat(visitor.getNodes()).containsExactly(
+                new DependencyNodeRef(new SimpleArtifactRef("org.test", "b", "1.0", "jar", null), "compile",
+                        bExclusions));
+        // the exclusion sets are shared, not copied
+        assertThat(visitor.getNodes()).singleElement()
+                .satisfies(node -> assertThat(node.getExclusions()).isSameAs(bExclusions));
+    }
+
+    private static DefaultDependencyNode node(String artifactId, String scope) {
+        return new DefaultDependencyNode(new Dependency(new DefaultArtifact("org.test", artifactId, "jar", "1.0"),
+                scope));
+    }
+}
@@ -0,0 +1,119 @@
+package org.wildfly.channelplugin.manipulation;
+
+import java.io.File;
+import java.net.URL;
+import java.util.Map;
+
+import org.assertj.core.api.Assertions;
+import org.codehaus.mojo.versions.api.PomHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class PomIndexTestCase {
+
+    private StringBuilder content;
+    private PomIndex index;
+
+    @BeforeEach
+    public void before() throws Exception {
+        URL pomUrl = getClass().getResource("pom.xml");
+        Assertions.assertThat(pomUrl).isNotNull();
+        content = PomHelper.readXmlFile(new File(pomUrl.toURI()));
+        index = PomIndex.build(content, Map.of());
+    }
+
+    @Test
+    public void testDependencyVersions() {
+        Assertions.assertThat(index.getDependencies("io.undertow", "undertow-servlet"))
+                .singleElement()
+                .satisfies(d -> {
+                    Assertions.assertThat(d.projectLevel).isTrue();
+                    Assertions.assertThat(text(d.version)).isEqualTo("${undertow.version}");
+                    Assertions.assertThat(text(d.versionEndTag)).isEqualTo("</version>");
+                });
+        Assertions.assertThat(index.getDependencies("io.undertow", "undertow-core"))
+                .singleElement()
+                .satisfies(d -> Assertions.assertThat(text(d.version).trim()).isEqualTo("${undertow.version}"));
+        Assertions.assertThat(index.getDependencies("org.jboss.marshalling", "jboss-marshalling"))
+                .singleElement()
+                .satisfies(d -> {
+                    Assertions.assertThat(d.projectLevel).isTrue();
+                    Assertions.assertThat(text(d.version)).isEqualTo("2.0.6.Final-redhat-00001");
+                });
+        Assertions.assertThat(index.getDependencies("org.aesh", "aesh")).isEmpty();
+    }
+
+    @Test
+    public void testProperties() {
+        Assertions.assertThat(index.getPropertyValues("undertow.version"))
+                .singleElement()
+                .satisfies(r -> Assertions.assertThat(text(r)).isEqualTo("2.2.5.Final-redhat-00001"));
+        Assertions.assertThat(index.getPropertyValues("missing")).isEmpty();
+    }
+
+    @Test
+    public void testSections() {
+        Assertions.assertThat(index.hasSection(PomIndex.DEPENDENCY_MANAGEMENT_DEPENDENCIES_PATH)).isTrue();
+        Assertions.assertThat(text(index.getSectionEndTag(PomIndex.DEPENDENCY_MANAGEMENT_DEPENDENCIES_PATH)))
+                .isEqualTo("</dependencies>");
+        Assertions.assertThat(text(index.getSectionEndTag(PomIndex.PROPERTIES_PATH))).isEqualTo("</properties>");
+        Assertions.assertThat(text(index.getSectionEndTag(PomIndex.PROJECT_PATH))).isEqualTo("</project>");
+        Assertions.assertThat(index.hasSection(PomIndex.REPOSITORIES_PATH)).isFalse();
+        Assertions.assertThat(index.getSectionEndTag(PomIndex.REPOSITORIES_PATH)).isNull();
+        Assertions.assertThat(index.getEmptySectionEnd(PomIndex.PROPERTIES_PATH)).isNull();
+    }
+
+    @Test
+    public void testEmptySections() throws Exception {
+        content = new StringBuilder("<project>\n  <properties/>\n  <repositories />\n</project>\n");
+        index = PomIndex.build(content, Map.of());
+
+        Assertions.assertThat(index.hasSection(PomIndex.PROPERTIES_PATH)).isTrue();
+        Assertions.assertThat(index.getSectionEndTag(PomIndex.PROPERTIES_PATH)).isNull();
+        Assertions.assertThat(index.getEmptySectionEnd(PomIndex.PROPERTIES_PATH))
+                .isEqualTo(new PomIndex.Range(content.indexOf("/>"), content.indexOf("/>") + 2));
+        Assertions.assertThat(text(index.getEmptySectionEnd(PomIndex.REPOSITORIES_PATH))).isEqualTo("/>");
+        Assertions.assertThat(text(index.getSectionEndTag(PomIndex.PROJECT_PATH))).isEqualTo("</project>");
+    }
+
+    @Test
+    public void testProfileAndPluginDependencies() throws Exception {
+        String pom = "<project>\n"
+                + "  <build><plugins><plugin>\n"
+                + "    <dependencies><dependency><groupId>${g}</groupId><artifactId>a</artifactId><version>1</version></dependency></dependencies>\n"
+                + "  </plugin></plugins></build>\n"
+                + "  <profiles><profile>\n"
+                + "    <dependencyManagement><dependencies>\n"
+                + "      <dependency><groupId>org.test</groupId><artifactId>b</artifactId><version>2</version></dependency>\n"
+                + "    </dependencies></dependencyManagement>\n"
+                + "    <properties><p>3</p></properties>\n"
+                + "  </profile></profiles>\n"
+                + "  <dependencies><dependency><groupId>org.test</groupId><artifactId>c</artifactId><version/></dependency></dependencies>\n"
+                + "</project>\n";
+        content = new StringBuilder(pom);
+        index = PomIndex.build(content, Map.of("g", "org.test"));
+
+        // plugin dependency, indexed both by the groupId expression and by the evaluated groupId
+        Assertions.assertThat(index.getDependencies("org.test", "a"))
+                .singleElement()
+                .satisfies(d -> {
+                    Assertions.assertThat(d.projectLevel).isFalse();
+                    Assertions.assertThat(d.groupId).isEqualTo("${g}");
+                    Assertions.assertThat(text(d.version)).isEqualTo("1");
+                });
+        Assertions.assertThat(index.getDependencies("${g}", "a")).hasSize(1);
+        Assertions.assertThat(index.getDependencies("org.test", "b"))
+                .singleElement()
+                .satisfies(d -> Assertions.assertThat(d.projectLevel).isFalse());
+        // empty version element
+        Assertions.assertThat(index.getDependencies("org.test", "c")).isEmpty();
+
+        Assertions.assertThat(index.getPropertyValues("p")).isEmpty();
+        Assertions.assertThat(index.hasSection(PomIndex.DEPENDENCY_MANAGEMENT_PATH)).isFalse();
+        Assertions.assertThat(index.hasSection(PomIndex.PROPERTIES_PATH)).isFalse();
+    }
+
+    private String text(PomIndex.Range range) {
+        return content.substring(range.start, range.end);
+    }
+}
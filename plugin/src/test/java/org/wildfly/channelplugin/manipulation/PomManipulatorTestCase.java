@@ -1,56 +1,58 @@
 package org.wildfly.channelplugin.manipulation;
 
-import java.io.File;
 import java.io.IOException;
-import java.net.URISyntaxException;
-import java.net.URL;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.util.Collections;
 import java.util.List;
-
-import javax.xml.stream.XMLInputFactory;
-import javax.xml.stream.XMLStreamException;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import org.apache.maven.model.Model;
 import org.assertj.core.api.Assertions;
-import org.codehaus.mojo.versions.api.PomHelper;
-import org.codehaus.mojo.versions.rewriting.ModifiedPomXMLEventReader;
-import org.codehaus.stax2.XMLInputFactory2;
 import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
 import org.commonjava.maven.atlas.ident.ref.SimpleArtifactRef;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.io.PomIO;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.wildfly.channelplugin.utils.DependencyModel;
 
 public class PomManipulatorTestCase {
 
-    private StringBuilder content;
-    private ModifiedPomXMLEventReader eventReader;
+    @TempDir
+    Path tempDir;
 
-    @BeforeEach
-    public void before() throws XMLStreamException, URISyntaxException, IOException {
-        URL pomUrl = getClass().getResource("pom.xml");
-        Assertions.assertThat(pomUrl).isNotNull();
-        content = PomHelper.readXmlFile(new File(pomUrl.toURI()));
+    private Path pomFile;
+    private PomManipulator manipulator;
 
-        XMLInputFactory inputFactory = XMLInputFactory2.newInstance();
-        inputFactory.setProperty(XMLInputFactory2.P_PRESERVE_LOCATION, Boolean.TRUE);
-        eventReader = new ModifiedPomXMLEventReader(content, inputFactory, pomUrl.getPath());
+    @BeforeEach
+    public void before() throws IOException, ManipulationException {
+        pomFile = tempDir.resolve("pom.xml");
+        try (InputStream is = getClass().getResourceAsStream("pom.xml")) {
+            Assertions.assertThat(is).isNotNull();
+            Files.copy(is, pomFile);
+        }
+        manipulator = new PomManipulator(readProject());
     }
 
     @Test
-    public void testInsertManagedDependency() throws IOException, XMLStreamException, ManipulationException {
+    public void testInsertManagedDependency() throws IOException, ManipulationException {
         ArtifactRef dep = new SimpleArtifactRef("org.aesh", "aesh", "2.4.0", "jar", null);
 
         DependencyModel model = readDependencyModel();
         Assertions.assertThat(model.getDependency(dep.getGroupId(), dep.getArtifactId(), dep.getType(), null))
                 .isEmpty();
 
-        PomManipulator.injectManagedDependency(eventReader, dep, Collections.emptyList(), null);
+        manipulator.injectManagedDependency(dep, Collections.emptyList(), null);
+        manipulator.writePom();
 
         model = readDependencyModel();
         Assertions.assertThat(model.getDependency(dep.getGroupId(), dep.getArtifactId(), dep.getType(), null))
@@ -61,23 +63,39 @@ public class PomManipulatorTestCase {
     }
 
     @Test
-    public void testInsertProperty() throws IOException, XMLStreamException, ManipulationException {
+    public void testInsertProperty() throws IOException, ManipulationException {
         Model model = readModel();
         Assertions.assertThat(model.getProperties().contains("prop")).isFalse();
 
-        PomManipulator.injectProperty(eventReader, "prop", "value");
+        manipulator.injectProperty("prop", "value");
+        manipulator.writePom();
 
         model = readModel();
         Assertions.assertThat(model.getProperties().getProperty("prop")).isEqualTo("value");
     }
 
     @Test
-    public void testInsertRepository() throws IOException, XMLStreamException, ManipulationException {
+    public void testOverrideProperty() throws IOException, ManipulationException {
+        Assertions.assertThat(manipulator.overrideProperty("undertow.version", "2.3.0.Final")).isTrue();
+        Assertions.assertThat(manipulator.overrideProperty("prop", "value")).isFalse();
+
+        manipulator.injectProperty("prop", "value");
+        Assertions.assertThat(manipulator.overrideProperty("prop", "value2")).isTrue();
+        manipulator.writePom();
+
+        Model model = readModel();
+        Assertions.assertThat(model.getProperties().getProperty("undertow.version")).isEqualTo("2.3.0.Final");
+        Assertions.assertThat(model.getProperties().getProperty("prop")).isEqualTo("value2");
+    }
+
+    @Test
+    public void testInsertRepository() throws IOException, ManipulationException {
         Model model = readModel();
         Assertions.assertThat(model.getRepositories()).isEmpty();
         Assertions.assertThat(model.getPluginRepositories()).isEmpty();
 
-        PomManipulator.injectRepository(eventReader, "repo", "https://maven/repo");
+        manipulator.injectRepository("repo", "https://maven/repo");
+        manipulator.writePom();
 
         model = readModel();
         Assertions.assertThat(model.getRepositories().size()).isEqualTo(1);
@@ -86,21 +104,22 @@ public class PomManipulatorTestCase {
     }
 
     @Test
-    public void testInsertPluginRepository() throws IOException, XMLStreamException, ManipulationException {
+    public void testInsertPluginRepository() throws IOException, ManipulationException {
         Model model = readModel();
         Assertions.assertThat(model.getRepositories()).isEmpty();
         Assertions.assertThat(model.getPluginRepositories()).isEmpty();
 
-        PomManipulator.injectRepository(eventReader, "repo", "https://maven/repo");
+        manipulator.injectPluginRepository("repo", "https://maven/repo");
+        manipulator.writePom();
 
         model = readModel();
-        Assertions.assertThat(model.getRepositories().size()).isEqualTo(1);
-        Assertions.assertThat(model.getRepositories().get(0))
+        Assertions.assertThat(model.getPluginRepositories().size()).isEqualTo(1);
+        Assertions.assertThat(model.getPluginRepositories().get(0))
                 .matches(r -> r.getId().equals("repo") && r.getUrl().equals("https://maven/repo"));
     }
 
     @Test
-    public void testOverrideDependencyVersionWithComment() throws IOException, XMLStreamException, ManipulationException {
+    public void testOverrideDependencyVersionWithComment() throws IOException, ManipulationException {
         DependencyModel model = readDependencyModel();
         Assertions.assertThat(model.getDependency("org.jboss.marshalling", "jboss-marshalling", "jar", null))
                 .satisfies(dependency -> {
@@ -108,8 +127,10 @@ public class PomManipulatorTestCase {
                     Assertions.assertThat(dependency.get().getVersion()).isEqualTo("2.0.6.Final-redhat-00001");
                 });
 
-        PomManipulator.overrideDependencyVersionWithComment(eventReader, "org.jboss.marshalling", "jboss-marshalling",
-                "2.0.6.Final-redhat-00001", "2.0.7.Final");
+        manipulator.overrideDependencyVersionWithComment(
+                new SimpleArtifactRef("org.jboss.marshalling", "jboss-marshalling", "2.0.6.Final-redhat-00001", "jar", null),
+                "2.0.7.Final");
+        manipulator.writePom();
 
         model = readDependencyModel();
         Assertions.assertThat(model.getDependency("org.jboss.marshalling", "jboss-marshalling", "jar", null))
@@ -117,16 +138,168 @@ public class PomManipulatorTestCase {
                     Assertions.assertThat(dependency).isPresent();
                     Assertions.assertThat(dependency.get().getVersion()).isEqualTo("2.0.7.Final");
                 });
+        Assertions.assertThat(Files.readString(pomFile))
+                .contains("<version>2.0.7.Final</version> <!-- Original version: 2.0.6.Final-redhat-00001 -->");
+    }
+
+    @Test
+    public void testOverrideDependencyVersion() throws IOException, ManipulationException {
+        manipulator.overrideDependencyVersion("io.undertow", "undertow-core", "${undertow.version}", "2.3.0.Final");
+        manipulator.writePom();
+
+        Model model = readModel();
+        Assertions.assertThat(model.getDependencyManagement().getDependencies())
+                .filteredOn(d -> d.getArtifactId().equals("undertow-core"))
+                .singleElement()
+                .matches(d -> d.getVersion().equals("2.3.0.Final"));
+        Assertions.assertThat(model.getDependencyManagement().getDependencies())
+                .filteredOn(d -> d.getArtifactId().equals("undertow-servlet"))
+                .singleElement()
+                .matches(d -> d.getVersion().equals("${undertow.version}"));
+    }
+
+    @Test
+    public void testBatchedEdits() throws IOException, ManipulationException {
+        ArtifactRef aesh = new SimpleArtifactRef("org.aesh", "aesh", "2.4.0", "jar", null);
+        ArtifactRef readline = new SimpleArtifactRef("org.aesh", "aesh-readline", "2.2.0", "jar", null);
+        ArtifactRef marshalling = new SimpleArtifactRef("org.jboss.marshalling", "jboss-marshalling",
+                "2.0.6.Final-redhat-00001", "jar", null);
+
+        manipulator.injectManagedDependency(aesh, Collections.emptyList(), "2.3.0");
+        manipulator.injectRepository("repo", "https://maven/repo");
+        manipulator.injectManagedDependency(readline, Collections.emptyList(), "2.1.0");
+        manipulator.injectRepository("repo2", "https://maven/repo2");
+        manipulator.overrideProperty("undertow.version", "2.3.0.Final");
+        manipulator.overrideDependencyVersionWithComment(marshalling, "2.0.7.Final");
+        // subsequent edits see the result of the preceding ones
+        manipulator.overrideDependencyVersion("org.jboss.marshalling", "jboss-marshalling", "2.0.7.Final", "2.0.8.Final");
+        manipulator.writePom();
+
+        Model model = readModel();
+        Assertions.assertThat(model.getProperties().getProperty("undertow.version")).isEqualTo("2.3.0.Final");
+        Assertions.assertThat(model.getRepositories()).extracting("id").containsExactly("repo", "repo2");
+        Assertions.assertThat(model.getDependencyManagement().getDependencies()).extracting("artifactId")
+                .containsExactly("undertow-core", "undertow-servlet", "aesh", "aesh-readline");
+
+        DependencyModel dependencyModel = new DependencyModel(model);
+        Assertions.assertThat(dependencyModel.getDependency("org.jboss.marshalling", "jboss-marshalling", "jar", null))
+                .hasValueSatisfying(d -> Assertions.assertThat(d.getVersion()).isEqualTo("2.0.8.Final"));
+        Assertions.assertThat(Files.readString(pomFile))
+                .contains("<version>2.0.8.Final</version> <!-- Original version: 2.0.6.Final-redhat-00001 -->");
+    }
+
+    @Test
+    public void testInjectIntoEmptySections() throws IOException, ManipulationException {
+        Files.writeString(pomFile, "<project>\n"
+                + "    <modelVersion>4.0.0</modelVersion>\n"
+                + "    <groupId>org.test</groupId>\n"
+                + "    <artifactId>test</artifactId>\n"
+                + "    <version>1.0</version>\n"
+                + "    <properties/>\n"
+                + "    <dependencyManagement />\n"
+                + "    <repositories/>\n"
+                + "</project>\n");
+        manipulator = new PomManipulator(readProject());
+
+        manipulator.injectProperty("prop", "value");
+        manipulator.injectManagedDependency(new SimpleArtifactRef("org.aesh", "aesh", "2.4.0", "jar", null),
+                Collections.emptyList(), null);
+        manipulator.injectRepository("repo", "https://maven/repo");
+        Assertions.assertThat(manipulator.writePom()).isTrue();
+
+        Assertions.assertThat(Files.readString(pomFile))
+                .contains("    <properties>\n        <prop>value</prop>\n    </properties>\n")
+                .doesNotContain("/>");
+        Model model = readModel();
+        Assertions.assertThat(model.getProperties().getProperty("prop")).isEqualTo("value");
+        Assertions.assertThat(model.getDependencyManagement().getDependencies())
+                .singleElement()
+                .matches(d -> d.getArtifactId().equals("aesh") && d.getVersion().equals("2.4.0"));
+        Assertions.assertThat(model.getRepositories())
+                .singleElement()
+                .matches(r -> r.getId().equals("repo"));
     }
 
-    private Model readModel() throws IOException, ManipulationException {
-        Path pomFile = Files.createTempFile("pom", "xml");
-        Files.write(pomFile, content.toString().getBytes());
+    @Test
+    public void testUnchangedPomIsNotWritten() throws IOException {
+        FileTime lastModified = FileTime.fromMillis(1_000_000_000_000L);
+        Files.setLastModifiedTime(pomFile, lastModified);
+
+        // overriding with the same value doesn't change the document
+        manipulator.overrideProperty("undertow.version", "2.2.5.Final-redhat-00001");
+        manipulator.overrideDependencyVersion("io.undertow", "undertow-core", "2.0.0.Final", "2.3.0.Final");
+        Assertions.assertThat(manipulator.isModified()).isFalse();
+        Assertions.assertThat(manipulator.writePom()).isFalse();
 
+        Assertions.assertThat(Files.getLastModifiedTime(pomFile)).isEqualTo(lastModified);
+    }
+
+    @Test
+    public void testPomIsReplaced() throws IOException {
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r-----");
+        boolean posix = pomFile.getFileSystem().supportedFileAttributeViews().contains("posix");
+        if (posix) {
+            Files.setPosixFilePermissions(pomFile, permissions);
+        }
+
+        manipulator.overrideProperty("undertow.version", "2.3.0.Final");
+        Assertions.assertThat(manipulator.isModified()).isTrue();
+        Assertions.assertThat(manipulator.writePom()).isTrue();
+
+        Assertions.assertThat(Files.readString(pomFile)).contains("<undertow.version>2.3.0.Final</undertow.version>");
+        // no temporary files are left behind
+        try (Stream<Path> files = Files.list(tempDir)) {
+            Assertions.assertThat(files).containsExactly(pomFile);
+        }
+        if (posix) {
+            Assertions.assertThat(Files.getPosixFilePermissions(pomFile)).isEqualTo(permissions);
+        }
+    }
+
+    @Test
+    public void testSymlinkedPomIsKept() throws IOException, ManipulationException {
+        Path target = Files.createDirectory(tempDir.resolve("target")).resolve("pom.xml");
+        Files.move(pomFile, target);
+        boolean linked;
+        try {
+            Files.createSymbolicLink(pomFile, target);
+            linked = true;
+        } catch (UnsupportedOperationException | IOException e) {
+            linked = false;
+        }
+        Assumptions.assumeTrue(linked, "Symbolic links are not supported");
+        manipulator = new PomManipulator(readProject());
+
+        manipulator.overrideProperty("undertow.version", "2.3.0.Final");
+        Assertions.assertThat(manipulator.writePom()).isTrue();
+
+        Assertions.assertThat(pomFile).isSymbolicLink();
+        Assertions.assertThat(Files.readString(target)).contains("<undertow.version>2.3.0.Final</undertow.version>");
+        try (Stream<Path> files = Files.list(target.getParent())) {
+            Assertions.assertThat(files).containsExactly(target);
+        }
+    }
+
+    @Test
+    public void testPomIsOnlyReadWhenEdited() throws IOException {
+        // the file is gone, the manipulator must not attempt to read it unless there is an edit
+        Files.delete(pomFile);
+
+        Assertions.assertThat(manipulator.overrideProperty("prop", "value")).isFalse();
+        Assertions.assertThat(manipulator.isModified()).isFalse();
+        Assertions.assertThat(manipulator.writePom()).isFalse();
+        Assertions.assertThat(pomFile).doesNotExist();
+    }
+
+    private Project readProject() throws ManipulationException {
         PomIO pomIO = new PomIO();
         List<Project> projects = pomIO.parseProject(pomFile.toFile());
         Assertions.assertThat(projects.size()).isEqualTo(1);
-        return projects.get(0).getModel();
+        return projects.get(0);
+    }
+
+    private Model readModel() throws ManipulationException {
+        return readProject().getModel();
     }
 
     private DependencyModel readDependencyModel() throws IOException, ManipulationException {
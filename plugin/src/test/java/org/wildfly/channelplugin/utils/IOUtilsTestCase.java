@@ -0,0 +1,75 @@
+package org.wildfly.channelplugin.utils;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IOUtilsTestCase {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws IOException {
+        Instant now = Instant.now();
+        Path oldest = createFile("org/old/a.jar", 100, now.minus(3, ChronoUnit.DAYS));
+        Path older = createFile("org/older/b.jar", 100, now.minus(2, ChronoUnit.DAYS));
+        Path recent = createFile("org/recent/c.jar", 100, now.minus(1, ChronoUnit.DAYS));
+
+        assertThat(IOUtils.evictLeastRecentlyUsed(tempDir, 300)).isEqualTo(0);
+        assertThat(IOUtils.evictLeastRecentlyUsed(tempDir, 150)).isEqualTo(2);
+
+        assertThat(oldest).doesNotExist();
+        assertThat(older).doesNotExist();
+        assertThat(recent).exists();
+        // emptied directories are removed too
+        assertThat(tempDir.resolve("org/old")).doesNotExist();
+        assertThat(tempDir.resolve("org")).exists();
+    }
+
+    @Test
+    public void testRecentlyUsedFilesAreNotEvicted() throws IOException {
+        Instant now = Instant.now();
+        Path old = createFile("org/old/a.jar", 100, now.minus(3, ChronoUnit.DAYS));
+        Path recent = createFile("org/recent/b.jar", 100, now.minus(1, ChronoUnit.MINUTES));
+
+        // over the limit, but the recent file may be in use by a concurrently running build
+        assertThat(IOUtils.evictLeastRecentlyUsed(tempDir, 0)).isEqualTo(1);
+        assertThat(old).doesNotExist();
+        assertThat(recent).exists();
+        assertThat(tempDir.resolve(IOUtils.EVICTION_LOCK_FILE)).exists();
+    }
+
+    @Test
+    public void testEvictionIsSkippedWhenLocked() throws IOException {
+        Path old = createFile("org/old/a.jar", 100, Instant.now().minus(3, ChronoUnit.DAYS));
+
+        try (FileChannel channel = FileChannel.open(tempDir.resolve(IOUtils.EVICTION_LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock lock = channel.lock()) {
+            assertThat(IOUtils.evictLeastRecentlyUsed(tempDir, 0)).isEqualTo(0);
+            assertThat(old).exists();
+        }
+        assertThat(IOUtils.evictLeastRecentlyUsed(tempDir, 0)).isEqualTo(1);
+    }
+
+    private Path createFile(String path, int size, Instant lastUsed) throws IOException {
+        Path file = tempDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[size]);
+        Files.setLastModifiedTime(file, FileTime.from(lastUsed));
+        Files.setAttribute(file, "lastAccessTime", FileTime.from(lastUsed));
+        return file;
+    }
+}
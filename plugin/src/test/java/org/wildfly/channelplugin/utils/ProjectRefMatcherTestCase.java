@@ -0,0 +1,47 @@
+package org.wildfly.channelplugin.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProjectRefMatcherTestCase {
+
+    @Test
+    public void testPatterns() {
+        ProjectRefMatcher matcher = ProjectRefMatcher.compile(List.of("org.test:exact", "org.group:*",
+                "org.jboss.*:*-parent", "*:prefix-*"), p -> {
+                    throw new AssertionError(p);
+                });
+
+        assertThat(matcher.matches("org.test", "exact")).isTrue();
+        assertThat(matcher.matches("org.test", "other")).isFalse();
+        assertThat(matcher.matches("org.group", "anything")).isTrue();
+        assertThat(matcher.matches("org.group.sub", "anything")).isFalse();
+        assertThat(matcher.matches("org.jboss.test", "test-parent")).isTrue();
+        assertThat(matcher.matches("org.jboss.test", "test-parent-2")).isFalse();
+        assertThat(matcher.matches("org.jboss", "test-parent")).isFalse();
+        assertThat(matcher.matches("org.any", "prefix-artifact")).isTrue();
+        // regex characters in patterns are literals
+        assertThat(matcher.matches("orgXjboss.test", "test-parent")).isFalse();
+    }
+
+    @Test
+    public void testEmpty() {
+        assertThat(ProjectRefMatcher.compile(null, p -> {}).matches("org.test", "artifact")).isFalse();
+        assertThat(ProjectRefMatcher.compile(List.of(), p -> {}).matches("org.test", "artifact")).isFalse();
+    }
+
+    @Test
+    public void testInvalidPatterns() {
+        List<String> invalid = new ArrayList<>();
+        ProjectRefMatcher matcher = ProjectRefMatcher.compile(List.of("org.test", "org.test:a", "org.test:a:1.0", ":a"),
+                invalid::add);
+
+        // invalid patterns are reported and skipped, valid patterns still apply
+        assertThat(invalid).containsExactly("org.test", "org.test:a:1.0", ":a");
+        assertThat(matcher.matches("org.test", "a")).isTrue();
+    }
+}
@@ -0,0 +1,33 @@
+package org.wildfly.channelplugin.utils;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PropertyNameMatcherTestCase {
+
+    @Test
+    public void testNamesAndPrefixes() {
+        PropertyNameMatcher matcher = PropertyNameMatcher.compile(List.of("version.exact"),
+                List.of("legacy.", "version.org.jboss", "version.org.jboss.logging"));
+
+        assertThat(matcher.matches("version.exact")).isTrue();
+        assertThat(matcher.matches("version.exact.suffix")).isFalse();
+        assertThat(matcher.matches("legacy.")).isTrue();
+        assertThat(matcher.matches("legacy.version")).isTrue();
+        assertThat(matcher.matches("legacy")).isFalse();
+        assertThat(matcher.matches("version.org.jboss.logging")).isTrue();
+        assertThat(matcher.matches("version.org.jboss.marshalling")).isTrue();
+        assertThat(matcher.matches("version.org.wildfly")).isFalse();
+        assertThat(matcher.matches("")).isFalse();
+    }
+
+    @Test
+    public void testEmpty() {
+        assertThat(PropertyNameMatcher.compile(null, null).matches("version")).isFalse();
+        // empty prefix matches everything, same as String#startsWith()
+        assertThat(PropertyNameMatcher.compile(null, List.of("")).matches("version")).isTrue();
+    }
+}
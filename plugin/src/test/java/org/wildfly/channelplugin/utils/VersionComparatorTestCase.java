@@ -1,7 +1,11 @@
 package org.wildfly.channelplugin.utils;
 
+import java.util.List;
+import java.util.Random;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.wildfly.channel.version.VersionMatcher;
 
 public class VersionComparatorTestCase {
 
@@ -22,4 +26,55 @@ public class VersionComparatorTestCase {
         Assertions.assertTrue(instance.compare("1.42.1.alpha-redhat-00001", "1.42.1-alpha") > 0);
 //        Assertions.assertTrue(instance.compare("5.0.SP3", "5.0.0.SP3-redhat-00001") < 0); !!!
     }
+
+    @Test
+    public void testSameResultsAsVersionMatcher() {
+        List<String> versions = List.of("1.42.1", "1.42.0", "1.42.1.Final", "1.42.1.Final-redhat-00001",
+                "1.42.1.SP1", "1.42.01", "1.042.1", "1.42.1-alpha", "1.42.1.alpha", "1.42", "1.42.1.0", "", "1",
+                "Final", "1:1.0", "2:1.0", "01:1.0", "a:1.0", ":1.0", "1:2:3", "1.99999999999999999999",
+                "1.99999999999999999998", "9223372036854775807", "1.9223372036854775807", "1.0.0.0000000000",
+                "1.\u0661.0", "1.1.0", "5.0.SP3", "5.0.0.SP3-redhat-00001");
+        for (String v1: versions) {
+            for (String v2: versions) {
+                assertSameResult(v1, v2);
+            }
+        }
+    }
+
+    @Test
+    public void testSameResultsAsVersionMatcherRandom() {
+        Random random = new Random(42);
+        String alphabet = "0123456789.-:aFinlSP";
+        for (int i = 0; i < 20_000; i++) {
+            assertSameResult(randomVersion(random, alphabet), randomVersion(random, alphabet));
+        }
+    }
+
+    private void assertSameResult(String v1, String v2) {
+        Integer expected;
+        Class<?> expectedException = null;
+        try {
+            expected = VersionMatcher.COMPARATOR.compare(v1, v2);
+        } catch (RuntimeException e) {
+            expected = null;
+            expectedException = e.getClass();
+        }
+        if (expected != null) {
+            // compare twice, the second time the parsed versions are taken from the cache
+            Assertions.assertEquals(expected, instance.compare(v1, v2), v1 + " <> " + v2);
+            Assertions.assertEquals(expected, instance.compare(v1, v2), v1 + " <> " + v2);
+        } else {
+            Assertions.assertThrows(expectedException.asSubclass(Throwable.class), () -> instance.compare(v1, v2),
+                    v1 + " <> " + v2);
+        }
+    }
+
+    private static String randomVersion(Random random, String alphabet) {
+        StringBuilder sb = new StringBuilder();
+        int length = random.nextInt(12);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
 }